@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+# Load test for comparing the platform-thread and virtual-thread request modes.
+#
+# Run the app twice, once as usual and once with --spring.threads.virtual.enabled=true, run this
+# script against each and compare the summaries. /api/admin/metrics -> virtualThreads shows pinning
+# and scheduling latency for the virtual-thread run.
+#
+# Needs a bearer token (POST /api/auth/token) and existing IDs, e.g.
+#   TOKEN=eyJ... USER_IDS="USER-0000001 USER-0000002 USER-0000003" COURSE_ID=CRS-00001 ./curl/load_test.sh
+# The enroll run alternates enroll and drop for each student so it can be repeated.
+#
+# With FULL_COURSE_ID set to a course with a capacity below the number of students, every student
+# also enrolls in it once, all at the same time, and the run fails if the course ends up with more
+# students than seats. EnrollmentCapacityTests runs the same race in-process against H2.
+
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+REQUESTS=${REQUESTS:-5000}
+CONCURRENCY=${CONCURRENCY:-200}
+: "${TOKEN:?set TOKEN to a bearer access token}"
+: "${USER_IDS:?set USER_IDS to space separated student user IDs}"
+: "${COURSE_ID:?set COURSE_ID to an existing course ID}"
+
+read -r -a students <<< "$USER_IDS"
+
+# Prints "METHOD URL" lines, one per request
+student_targets() {
+  for ((i = 0; i < REQUESTS; i++)); do
+    echo "GET $BASE_URL/api/students/${students[i % ${#students[@]}]}"
+  done
+}
+
+enroll_targets() {
+  for ((i = 0; i < REQUESTS; i++)); do
+    student=${students[(i / 2) % ${#students[@]}]}
+    if ((i % 2 == 0)); then
+      echo "POST $BASE_URL/api/students/$student/enroll/$COURSE_ID"
+    else
+      echo "DELETE $BASE_URL/api/students/$student/drop/$COURSE_ID"
+    fi
+  done
+}
+
+capacity_targets() {
+  for student in "${students[@]}"; do
+    echo "POST $BASE_URL/api/courses/$FULL_COURSE_ID/enroll/$student"
+  done
+}
+
+# Fails when the course has more students than its capacity
+check_overbooking() {
+  local capacity enrolled
+  capacity=$(curl -s -H "Authorization: Bearer $TOKEN" "$BASE_URL/api/courses/$FULL_COURSE_ID" \
+    | grep -o '"capacity":[0-9]*' | cut -d: -f2)
+  enrolled=$(curl -s -H "Authorization: Bearer $TOKEN" "$BASE_URL/api/courses/$FULL_COURSE_ID/students" \
+    | grep -o '"userId":' | wc -l)
+  echo "capacity   ${capacity:-none}, enrolled $enrolled"
+  if [[ -n "$capacity" ]] && ((enrolled > capacity)); then
+    echo "overbooked by $((enrolled - capacity))" >&2
+    exit 1
+  fi
+}
+
+# Runs the targets CONCURRENCY at a time and prints requests/s, p50, p99 and the status codes seen
+run() {
+  local name=$1 generator=$2 results
+  results=$(mktemp)
+
+  local started ended
+  started=$(date +%s.%N)
+  $generator | xargs -P "$CONCURRENCY" -L 1 sh -c \
+    'curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X "$0" -H "Authorization: Bearer $TOKEN" "$1"' >> "$results"
+  ended=$(date +%s.%N)
+
+  sort -k2 -n "$results" | awk -v name="$name" -v started="$started" -v ended="$ended" '
+    { times[NR] = $2; codes[$1]++ }
+    END {
+      elapsed = ended - started
+      p50 = times[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+      p99 = times[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+      printf "%-10s %6d requests  %8.1f req/s  p50 %6.1f ms  p99 %7.1f ms  status", name, NR, NR / elapsed, p50 * 1000, p99 * 1000
+      for (code in codes) printf " %s:%d", code, codes[code]
+      printf "\n"
+    }'
+
+  rm -f "$results"
+}
+
+export TOKEN
+echo "concurrency $CONCURRENCY against $BASE_URL"
+run "student" student_targets
+run "enroll" enroll_targets
+if [[ -n "${FULL_COURSE_ID:-}" ]]; then
+  run "capacity" capacity_targets
+  check_overbooking
+fi
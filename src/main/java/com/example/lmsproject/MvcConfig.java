@@ -12,8 +12,7 @@ public class MvcConfig implements WebMvcConfigurer {
         registry.addViewController("/").setViewName("index");
         registry.addViewController("/login").setViewName("login");
         registry.addViewController("/admin/dashboard").setViewName("admin-dashboard");
-        registry.addViewController("/lecturer/{lecturerId}").setViewName("lecturer-profile"); //Lecturer profile - Public
-        registry.addViewController("/student/{studentId}").setViewName("student-profile"); //Student profile Public
+        // /lecturer/{lecturerId} and /student/{studentId} are rendered by WebController
         registry.addViewController("/manage-lecturer").setViewName("manage-lecturer"); // Lecturer private management
         registry.addViewController("/manage-student").setViewName("manage-student"); // Student private management
 
@@ -1,5 +1,6 @@
 package com.example.lmsproject.auth;
 
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -11,4 +12,30 @@ public class AuthUtils {
         return auth.getName();
     }
 
+    // False for anonymous visitors on permitAll routes
+    public static boolean isSignedIn() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken);
+    }
+
+    public static boolean isAdmin() {
+        return hasRole("ADMIN");
+    }
+
+    // Same check as hasRole(...) in SecurityConfig
+    public static boolean hasRole(String role) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) return false;
+        return auth.getAuthorities().stream().anyMatch(authority -> authority.getAuthority().equals("ROLE_" + role));
+    }
+
+    // Session logins carry LmsUserDetails, bearer tokens carry their claims as details
+    public static String getUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) return null;
+        if (auth.getPrincipal() instanceof LmsUserDetails user) return user.getUserId();
+        if (auth.getDetails() instanceof TokenClaims claims) return claims.uid();
+        return null;
+    }
+
 }
@@ -16,21 +16,38 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepo.findByUsername(username);
+        UserDetailsCache.CachedUser user = userDetailsCache.get(username, this::findUser);
 
         if (user == null) throw new UsernameNotFoundException("User not found");
 
-        GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole());
+        GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.role());
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
+        return new LmsUserDetails(
+                user.userId(),
+                user.username(),
+                user.password(),
+                user.role(),
+                user.passwordChangedAt(),
                 List.of(authority)
         );
 
     }
 
+    private UserDetailsCache.CachedUser findUser(String username) {
+
+        User user = userRepo.findByUsername(username);
+
+        if (user == null) return null;
+
+        return new UserDetailsCache.CachedUser(user.getUserId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.getPasswordChangedAt());
+
+    }
+
 }
@@ -0,0 +1,16 @@
+package com.example.lmsproject.auth;
+
+public class HashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingBusyException(long retryAfterSeconds) {
+        super("Password hashing queue is full");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.example.lmsproject.auth;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public class LmsUserDetails extends User {
+
+    private final String userId;
+    private final String role;
+    private final Instant passwordChangedAt;
+
+    public LmsUserDetails(String userId, String username, String password, String role, Instant passwordChangedAt,
+                          Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+        this.role = role;
+        this.passwordChangedAt = passwordChangedAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Instant getPasswordChangedAt() {
+        return passwordChangedAt;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.example.lmsproject.auth;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt on a CPU sized pool with a bounded queue so a burst of signups
+ * cannot tie up every request thread. When the queue is full single requests
+ * are rejected with HashingBusyException, batches wait for their own work.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 means one thread per available core
+    @Value("${lms.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${lms.auth.hashing.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${lms.auth.hashing.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${lms.auth.hashing.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder hashed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pw-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        try {
+            return await(submit(rawPassword));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingBusyException(retryAfterSeconds);
+        }
+    }
+
+    // Keeps at most one task per pool thread in flight so a large batch never fills the queue on its own
+    public List<String> encodeAll(List<String> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+
+        try {
+            for (String rawPassword : rawPasswords) {
+                while (inFlight.size() >= window) {
+                    await(inFlight.removeFirst());
+                }
+
+                Future<String> future = null;
+                while (future == null) {
+                    try {
+                        future = submit(rawPassword);
+                    } catch (RejectedExecutionException e) {
+                        if (inFlight.isEmpty()) {
+                            rejected.increment();
+                            throw new HashingBusyException(retryAfterSeconds);
+                        }
+                        await(inFlight.removeFirst());
+                    }
+                }
+
+                futures.add(future);
+                inFlight.addLast(future);
+            }
+
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+            return hashes;
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e;
+        }
+    }
+
+    public Map<String, Long> stats() {
+        long count = hashed.sum();
+
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("poolSize", (long) executor.getMaximumPoolSize());
+        stats.put("activeThreads", (long) executor.getActiveCount());
+        stats.put("queueDepth", (long) executor.getQueue().size());
+        stats.put("queueCapacity", (long) queueCapacity);
+        stats.put("hashed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgHashMicros", count == 0 ? 0 : hashNanos.sum() / count / 1000);
+        stats.put("maxHashMicros", maxHashNanos.get() / 1000);
+        stats.put("avgQueueWaitMicros", count == 0 ? 0 : waitNanos.sum() / count / 1000);
+        return stats;
+    }
+
+    private Future<String> submit(String rawPassword) {
+        long queuedAt = System.nanoTime();
+
+        return executor.submit(() -> {
+            long startedAt = System.nanoTime();
+            String hash = passwordEncoder.encode(rawPassword);
+            long elapsed = System.nanoTime() - startedAt;
+
+            waitNanos.add(startedAt - queuedAt);
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulate(elapsed);
+            hashed.increment();
+            return hash;
+        });
+    }
+
+    private String await(Future<String> future) {
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new HashingBusyException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.lmsproject.auth;
+
+// iat and exp are epoch seconds
+public record TokenClaims(String jti, String typ, String sub, String role, String uid, long iat, long exp) {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+}
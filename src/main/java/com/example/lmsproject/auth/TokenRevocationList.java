@@ -0,0 +1,78 @@
+package com.example.lmsproject.auth;
+
+import com.example.lmsproject.repository.RevokedTokenRepository;
+import com.example.lmsproject.service.AggregateVersions;
+import com.example.lmsproject.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token IDs, shared by all nodes through the revoked_tokens table and checked against an
+ * in-memory copy, so verifying a token never touches the database. A revocation bumps the shared
+ * "revocations" version; each node polls that version every lms.auth.token.revocation-poll-ms and
+ * reloads the set when it moved, which bounds how long a token revoked elsewhere still works here.
+ * Whether a token is already revoked is decided by the table, so a refresh token is single use
+ * across nodes. IDs are only kept until the token would have expired anyway, so the set stays small.
+ */
+@Component
+public class TokenRevocationList {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // shared version the set was last loaded at, -1 before the first load
+    private volatile long version = -1;
+
+    public boolean isRevoked(String jti) {
+        return revoked.containsKey(jti);
+    }
+
+    // Returns false if the token was already revoked on any node, which is how refresh token reuse is detected
+    @Transactional
+    public boolean revoke(String jti, long expiresAtEpochSeconds) {
+        if (!revokedTokenRepository.insert(jti, expiresAtEpochSeconds)) return false;
+        aggregateVersions.bump(AggregateVersions.REVOCATIONS);
+        AfterCommit.run(() -> revoked.put(jti, expiresAtEpochSeconds));
+        return true;
+    }
+
+    // Reads the version before the rows, so a revocation committed in between is loaded again next time
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${lms.auth.token.revocation-poll-ms:1000}")
+    public void sync() {
+        long current = aggregateVersions.current(AggregateVersions.REVOCATIONS);
+        if (current == version) return;
+
+        revoked.putAll(revokedTokenRepository.findUnexpired(Instant.now().getEpochSecond()));
+        version = current;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.example.lmsproject.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed tokens of the form base64url(claims).base64url(signature).
+ * Verification only needs the key and the in-memory revocation list, never the database.
+ *
+ * In stateless mode a token issued on one node must verify on every other, so the application
+ * refuses to start without a shared lms.auth.token.secret of at least 32 bytes.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    public record IssuedTokens(String accessToken, String refreshToken, long expiresIn) {}
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${lms.auth.stateless:false}")
+    private boolean stateless;
+
+    // Every node has to share the same secret; left blank outside stateless mode, a random one is used (single node only)
+    @Value("${lms.auth.token.secret:}")
+    private String secret;
+
+    @Value("${lms.auth.token.access-ttl-seconds:900}")
+    private long accessTtlSeconds;
+
+    @Value("${lms.auth.token.refresh-ttl-seconds:86400}")
+    private long refreshTtlSeconds;
+
+    private SecretKeySpec key;
+
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (stateless) {
+                throw new IllegalStateException("lms.auth.stateless=true needs lms.auth.token.secret, the same on every node");
+            }
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("lms.auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    public IssuedTokens issue(LmsUserDetails user) {
+        return new IssuedTokens(
+                sign(newClaims(TokenClaims.ACCESS, user, accessTtlSeconds)),
+                sign(newClaims(TokenClaims.REFRESH, user, refreshTtlSeconds)),
+                accessTtlSeconds
+        );
+    }
+
+    // Returns null for anything that is malformed, tampered with, expired, revoked or of the wrong type
+    public TokenClaims verify(String token, String expectedType) {
+        if (token == null) return null;
+
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) return null;
+
+        try {
+            byte[] payload = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+
+            if (!MessageDigest.isEqual(signature, macs.get().doFinal(payload))) return null;
+
+            TokenClaims claims = objectMapper.readValue(payload, TokenClaims.class);
+
+            if (!expectedType.equals(claims.typ())) return null;
+            if (claims.exp() < Instant.now().getEpochSecond()) return null;
+            if (revocationList.isRevoked(claims.jti())) return null;
+
+            return claims;
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            return null;
+        }
+    }
+
+    // Refresh tokens are single use, the presented one is revoked and a new pair is issued. One issued
+    // before the user's last password change is refused, so a password change ends existing logins
+    public IssuedTokens refresh(String refreshToken) {
+        TokenClaims claims = verify(refreshToken, TokenClaims.REFRESH);
+        if (claims == null || !revocationList.revoke(claims.jti(), claims.exp())) return null;
+
+        try {
+            // Picks up deletes, role and password changes; served from the login cache
+            LmsUserDetails user = (LmsUserDetails) userDetailsService.loadUserByUsername(claims.sub());
+            if (issuedBefore(claims, user.getPasswordChangedAt())) return null;
+            return issue(user);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    public boolean revoke(String token) {
+        TokenClaims claims = verify(token, TokenClaims.ACCESS);
+        if (claims == null) claims = verify(token, TokenClaims.REFRESH);
+        if (claims == null) return false;
+
+        return revocationList.revoke(claims.jti(), claims.exp());
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("revokedTokens", (long) revocationList.size());
+        stats.put("revocationVersion", revocationList.getVersion());
+        return stats;
+    }
+
+    private TokenClaims newClaims(String type, LmsUserDetails user, long ttlSeconds) {
+        long now = Instant.now().getEpochSecond();
+        return new TokenClaims(
+                UUID.randomUUID().toString(),
+                type,
+                user.getUsername(),
+                user.getRole(),
+                user.getUserId(),
+                now,
+                now + ttlSeconds
+        );
+    }
+
+    // iat is truncated to the second, so a token from the same second as the change counts as issued before it
+    private static boolean issuedBefore(TokenClaims claims, Instant passwordChangedAt) {
+        return passwordChangedAt != null && !Instant.ofEpochSecond(claims.iat()).isAfter(passwordChangedAt);
+    }
+
+    private String sign(TokenClaims claims) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(claims);
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(macs.get().doFinal(payload));
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+    }
+
+}
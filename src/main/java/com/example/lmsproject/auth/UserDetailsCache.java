@@ -0,0 +1,78 @@
+package com.example.lmsproject.auth;
+
+import com.example.lmsproject.service.AggregateVersions;
+import com.example.lmsproject.utils.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Users are cached per node, each entry with the shared login version it was loaded at. Every lookup
+// reads that version from the aggregate_versions table first (one primary key read instead of the
+// joined user query), so an entry is never used once a change or delete has committed on any node.
+@Component
+public class UserDetailsCache {
+
+    // Spring Security erases credentials on the UserDetails it is given, so only this
+    // immutable copy is cached and a fresh UserDetails is built for every login
+    public record CachedUser(String userId, String username, String password, String role, Instant passwordChangedAt) {}
+
+    private record Entry(CachedUser user, long version) {}
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Value("${lms.auth.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${lms.auth.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private BoundedCache<String, Entry> cache;
+
+    private final LongAdder stale = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public CachedUser get(String username, Function<String, CachedUser> loader) {
+
+        // read before loading: a change committed in between leaves the entry behind the version, never ahead
+        long version = aggregateVersions.loginVersion(username);
+
+        Entry entry = cache.get(username);
+        if (entry != null) {
+            if (entry.version() == version) return entry.user();
+            stale.increment();
+        }
+
+        CachedUser user = loader.apply(username);
+        if (user != null) cache.put(username, new Entry(user, version));
+        return user;
+
+    }
+
+    // Call with the password, profile or role change, or the delete, ideally in its transaction:
+    // the version moves when that commits
+    public void evict(String username) {
+        if (username != null) {
+            aggregateVersions.bumpLogin(username);
+            cache.invalidate(username);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>(cache.stats());
+        stats.put("stale", stale.sum());
+        return stats;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.lmsproject.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports how the virtual-thread mode (spring.threads.virtual.enabled) is behaving, under
+ * /api/admin/metrics:
+ *
+ * pinned: virtual threads that blocked while pinned to their carrier (inside a synchronized
+ * block or a native frame), read in-process from the JFR jdk.VirtualThreadPinned event, counted
+ * per first application or driver frame so the offending call site shows up.
+ *
+ * schedulingLatency: how long a freshly started virtual thread waits for a carrier, sampled by
+ * a probe every lms.virtual-threads.diagnostics.probe-interval-ms. Rising latency means the
+ * carriers are busy (CPU-bound work or pinning), not the database.
+ *
+ * Does nothing while virtual threads are off.
+ */
+@Component
+public class VirtualThreadDiagnostics {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+
+    // Distinct call sites kept, further ones are counted under "other"
+    private static final int MAX_SITES = 50;
+    private static final int SAMPLES = 1024;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Pinned periods shorter than this are not recorded
+    @Value("${lms.virtual-threads.diagnostics.pinned-threshold-ms:20}")
+    private long pinnedThresholdMillis;
+
+    private RecordingStream recording;
+
+    private final LongAdder pinned = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final LongAdder submitFailed = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    // Ring of the last SAMPLES probe latencies in nanoseconds
+    private final long[] latencies = new long[SAMPLES];
+    private long probes;
+
+    @PostConstruct
+    void init() {
+        if (!virtualThreads) return;
+
+        recording = new RecordingStream();
+        recording.enable(PINNED).withThreshold(Duration.ofMillis(pinnedThresholdMillis)).withStackTrace();
+        recording.enable(SUBMIT_FAILED);
+        recording.onEvent(PINNED, this::pinned);
+        recording.onEvent(SUBMIT_FAILED, event -> submitFailed.increment());
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (recording != null) recording.close();
+    }
+
+    @Scheduled(fixedRateString = "${lms.virtual-threads.diagnostics.probe-interval-ms:1000}")
+    public void probe() {
+        if (!virtualThreads) return;
+
+        long startedAt = System.nanoTime();
+        Thread.ofVirtual().name("vt-latency-probe").start(() -> record(System.nanoTime() - startedAt));
+    }
+
+    public Map<String, Object> stats() {
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", virtualThreads);
+        if (!virtualThreads) return stats;
+
+        stats.put("pinned", pinned.sum());
+        stats.put("pinnedMillis", pinnedNanos.sum() / 1_000_000);
+        stats.put("submitFailed", submitFailed.sum());
+
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedSites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> sites.put(entry.getKey(), entry.getValue().sum()));
+        stats.put("pinnedSites", sites);
+
+        long[] samples;
+        synchronized (latencies) {
+            samples = Arrays.copyOf(latencies, (int) Math.min(probes, SAMPLES));
+        }
+        Arrays.sort(samples);
+        Map<String, Long> latency = new LinkedHashMap<>();
+        latency.put("samples", (long) samples.length);
+        latency.put("p50Micros", percentile(samples, 50) / 1000);
+        latency.put("p99Micros", percentile(samples, 99) / 1000);
+        latency.put("maxMicros", samples.length == 0 ? 0 : samples[samples.length - 1] / 1000);
+        stats.put("schedulingLatency", latency);
+
+        return stats;
+
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+
+        String site = site(event.getStackTrace());
+        if (pinnedSites.size() >= MAX_SITES && !pinnedSites.containsKey(site)) site = "other";
+        pinnedSites.computeIfAbsent(site, key -> new LongAdder()).increment();
+    }
+
+    // The first frame outside the JDK, which is where the application or the driver blocked
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "unknown";
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) continue;
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) continue;
+            return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+        }
+        return "jdk";
+    }
+
+    private void record(long nanos) {
+        synchronized (latencies) {
+            latencies[(int) (probes++ % SAMPLES)] = nanos;
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percentile / 100.0) - 1)];
+    }
+
+}
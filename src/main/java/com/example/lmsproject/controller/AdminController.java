@@ -1,14 +1,22 @@
 package com.example.lmsproject.controller;
 
 import com.example.lmsproject.entity.Admin;
+import com.example.lmsproject.entity.ImportSummary;
 import com.example.lmsproject.entity.Lecturer;
 import com.example.lmsproject.entity.PasswordChangeRequest;
 import com.example.lmsproject.service.AdminService;
+import com.example.lmsproject.service.AggregateVersions;
 import com.example.lmsproject.service.LecturerService;
+import com.example.lmsproject.service.RosterImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -21,6 +29,12 @@ public class AdminController {
     @Autowired
     private LecturerService lecturerService;
 
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
     // OP
     @PostMapping("/newAdmin")
     public ResponseEntity<String> newAdmin(@RequestBody Admin admin){
@@ -88,6 +102,14 @@ public class AdminController {
 
     }
 
+    // Streams the body (JSON array, NDJSON or CSV) and saves it chunk by chunk as it is read
+    @PostMapping(value = "/lecturers/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, RosterImportService.NDJSON, RosterImportService.CSV})
+    public ImportSummary newLecturers(HttpServletRequest request) throws IOException {
+
+        return rosterImportService.importLecturers(request.getInputStream(), request.getContentType());
+
+    }
+
     // OP
     @GetMapping("/makeLic/{lecturerId}")
     public ResponseEntity<String > makeLic(@PathVariable String lecturerId){
@@ -145,41 +167,56 @@ public class AdminController {
     }
 
     @GetMapping("/getAllAdmins")
-    public ResponseEntity<String> getAllAdmins() {
+    public void getAllAdmins(HttpServletResponse response) throws IOException {
 
-        return ResponseEntity.ok(adminService.getAllAdmins().toString());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        adminService.writeAllAdmins(response.getOutputStream());
 
     }
 
     @GetMapping("/getAllLecturers")
-    public ResponseEntity<String> getAllLecturers() {
+    public void getLecturers(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+                             HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        lecturerService.writeLecturersPage(cursor, size, response.getOutputStream());
+
+    }
+
+    // Unpaginated listing, kept for existing clients
+    @GetMapping(value = "/getAllLecturers", params = "all=true")
+    public void getAllLecturers(HttpServletResponse response) throws IOException {
 
-        return ResponseEntity.ok(lecturerService.getAllLecturers().toString());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        lecturerService.writeAllLecturers(response.getOutputStream());
 
     }
 
     @GetMapping("/getAllDepartments")
-    public ResponseEntity<String> getAllDepartments() {
+    public void getAllDepartments(HttpServletResponse response, ServletWebRequest webRequest) throws IOException {
 
-        return null;
+        if (ConditionalGet.notModified(webRequest, aggregateVersions.departmentsEtag())) return;
 
-        //return ResponseEntity.ok(adminService.getAllDepartments().toString());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        adminService.writeAllDepartments(response.getOutputStream());
 
     }
 
     @GetMapping("/getAllCourses")
-    public ResponseEntity<String> getAllCourses() {
+    public void getAllCourses(HttpServletResponse response, ServletWebRequest webRequest) throws IOException {
+
+        if (ConditionalGet.notModified(webRequest, aggregateVersions.catalogEtag())) return;
 
-        return null;
-       //return ResponseEntity.ok(adminService.getAllCourses().toString());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        adminService.writeAllCourses(response.getOutputStream());
 
     }
 
     @GetMapping("/getAllStudents")
-    public ResponseEntity<String> getAllStudents() {
+    public void getAllStudents(HttpServletResponse response) throws IOException {
 
-        return null;
-        //return ResponseEntity.ok(adminService.getAllStudents().toString());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        adminService.writeAllStudents(response.getOutputStream());
 
     }
 
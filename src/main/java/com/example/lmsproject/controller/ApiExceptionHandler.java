@@ -0,0 +1,57 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.auth.HashingBusyException;
+import com.example.lmsproject.service.EnrollmentBusyException;
+import com.example.lmsproject.service.EnrollmentPendingException;
+import com.example.lmsproject.service.InvalidCapacityException;
+import com.example.lmsproject.utils.InvalidCursorException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(HashingBusyException.class)
+    public ResponseEntity<String> hashingBusy(HashingBusyException e) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Server is busy, please retry later");
+
+    }
+
+    @ExceptionHandler(EnrollmentBusyException.class)
+    public ResponseEntity<String> enrollmentBusy(EnrollmentBusyException e) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Server is busy, please retry later");
+
+    }
+
+    // No Retry-After: the change may still commit
+    @ExceptionHandler(EnrollmentPendingException.class)
+    public ResponseEntity<String> enrollmentPending(EnrollmentPendingException e) {
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> invalidCursor(InvalidCursorException e) {
+
+        return ResponseEntity.badRequest().body(e.getMessage());
+
+    }
+
+    @ExceptionHandler(InvalidCapacityException.class)
+    public ResponseEntity<String> invalidCapacity(InvalidCapacityException e) {
+
+        return ResponseEntity.badRequest().body(e.getMessage());
+
+    }
+
+}
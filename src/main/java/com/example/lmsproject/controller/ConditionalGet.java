@@ -0,0 +1,29 @@
+package com.example.lmsproject.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// Conditional GET against the ETags from AggregateVersions
+final class ConditionalGet {
+
+    // Browsers may keep the body but must revalidate it; without this Spring Security's no-store default
+    // stops clients from ever sending If-None-Match
+    private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    // Call before querying: true means a 304 has been prepared and the handler should return without a body
+    static boolean notModified(ServletWebRequest request, String etag) {
+
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        }
+        return request.checkNotModified(etag);
+
+    }
+
+}
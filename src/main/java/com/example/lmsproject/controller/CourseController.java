@@ -1,10 +1,21 @@
 package com.example.lmsproject.controller;
 
+import com.example.lmsproject.auth.AuthUtils;
+import com.example.lmsproject.entity.BulkEnrollmentRequest;
+import com.example.lmsproject.entity.BulkEnrollmentResult;
 import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.EnrollmentResult;
 import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.WaitlistResult;
+import com.example.lmsproject.service.CatalogReadModel;
 import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.service.EnrollmentBatcher;
+import com.example.lmsproject.service.WaitlistService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -16,25 +27,47 @@ public class CourseController {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private EnrollmentBatcher enrollmentBatcher;
+
     // BASIC CRUD OPERATIONS
     @PostMapping("")
     public Course createCourse(@RequestBody Course course) {
         return courseService.saveCourse(course);
     }
 
-    @GetMapping("")
-    public List<Course> getAllCourses() {
-        return courseService.getAllCourses();
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.catalogEtag())) return null;
+        return catalogReadModel.coursesPage(cursor, size);
+    }
+
+    // Unpaginated listing, kept for existing clients
+    @GetMapping(value = "", params = "all=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getAllCourses(ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.catalogEtag())) return null;
+        return catalogReadModel.allCourses();
     }
 
-    @GetMapping("/{id}")
-    public Course getCourseById(@PathVariable String id) {
-        return courseService.getCourseById(id);
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getCourseById(@PathVariable String id, ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.catalogEtag())) return null;
+        return catalogReadModel.course(id);
     }
 
-    @GetMapping("/department/{departmentId}")
-    public List<Course> getCoursesByDepartment(@PathVariable String departmentId) {
-        return courseService.getCoursesByDepartment(departmentId);
+    @GetMapping(value = "/department/{departmentId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getCoursesByDepartment(@PathVariable String departmentId, ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.catalogEtag())) return null;
+        return catalogReadModel.coursesByDepartment(departmentId);
     }
 
     @GetMapping("/{courseId}/students")
@@ -51,11 +84,30 @@ public class CourseController {
 
     // enroll
     @PostMapping("/{courseId}/enroll/{studentId}")
-    public Course enrollStudent(
+    public ResponseEntity<EnrollmentResult> enrollStudent(
             @PathVariable String courseId,
             @PathVariable String studentId) {
 
-      return courseService.enrollStudentInCourse(studentId, courseId);
+      return EnrollmentResponses.toResponse(enrollmentBatcher.enroll(studentId, courseId));
+
+    }
+
+
+    // bulk enroll a cohort into one course, body is a JSON array of student IDs
+    @PostMapping("/{courseId}/enrollments:bulk")
+    public BulkEnrollmentResult bulkEnrollStudents(
+            @PathVariable String courseId,
+            @RequestBody List<String> studentIds) {
+
+        return courseService.bulkEnroll(List.of(courseId), studentIds);
+
+    }
+
+    // bulk enroll the same students into several courses
+    @PostMapping("/enrollments:bulk")
+    public BulkEnrollmentResult bulkEnrollStudentsInCourses(@RequestBody BulkEnrollmentRequest request) {
+
+        return courseService.bulkEnroll(request.getCourseIds(), request.getStudentIds());
 
     }
 
@@ -66,13 +118,45 @@ public class CourseController {
     }
 
     @DeleteMapping("/{courseId}/drop/{studentId}")
-    public Course dropStudent(
+    public ResponseEntity<EnrollmentResult> dropStudent(
+            @PathVariable String courseId,
+            @PathVariable String studentId) {
+
+        return EnrollmentResponses.toResponse(enrollmentBatcher.drop(studentId, courseId));
+
+    }
+
+
+    // waitlist, students are enrolled from it in order as seats free up.
+    // Only admins may place someone ahead of the line; everyone else joins at priority 0.
+    @PostMapping("/{courseId}/waitlist/{studentId}")
+    public ResponseEntity<WaitlistResult> joinWaitlist(
+            @PathVariable String courseId,
+            @PathVariable String studentId,
+            @RequestParam(defaultValue = "0") int priority) {
+
+        int granted = AuthUtils.isAdmin() ? priority : 0;
+        return EnrollmentResponses.toResponse(waitlistService.join(studentId, courseId, granted));
+
+    }
+
+    @GetMapping("/{courseId}/waitlist/{studentId}")
+    public ResponseEntity<WaitlistResult> getWaitlistPosition(
+            @PathVariable String courseId,
+            @PathVariable String studentId) {
+
+        return EnrollmentResponses.toResponse(waitlistService.getPosition(studentId, courseId));
+
+    }
+
+    @DeleteMapping("/{courseId}/waitlist/{studentId}")
+    public ResponseEntity<WaitlistResult> leaveWaitlist(
             @PathVariable String courseId,
             @PathVariable String studentId) {
 
-        return courseService.dropStudentFromCourse(studentId, courseId);
+        return EnrollmentResponses.toResponse(waitlistService.leave(studentId, courseId));
 
     }
 
 
-}
\ No newline at end of file
+}
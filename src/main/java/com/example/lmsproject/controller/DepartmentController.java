@@ -3,9 +3,12 @@ package com.example.lmsproject.controller;
 
 import com.example.lmsproject.entity.Department;
 import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.service.CatalogReadModel;
 import com.example.lmsproject.service.DepartmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -16,6 +19,9 @@ public class DepartmentController {
     @Autowired
     private DepartmentService departmentService;
 
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
     //create
     @PostMapping("")
     public Department addDepartment(@RequestBody Department department) {
@@ -24,14 +30,26 @@ public class DepartmentController {
 
     //read
 
-    @GetMapping("")
-    public List<Department> getAllDepartments() {
-        return departmentService.getAllDepartments();
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getDepartments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.departmentsEtag())) return null;
+        return catalogReadModel.departmentsPage(cursor, size);
+    }
+
+    // Unpaginated listing, kept for existing clients
+    @GetMapping(value = "", params = "all=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getAllDepartments(ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.departmentsEtag())) return null;
+        return catalogReadModel.allDepartments();
     }
 
-    @GetMapping("/{id}")
-    public Department getDepartmentById(@PathVariable String id) {
-        return departmentService.getDepartmentById(id);
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getDepartmentById(@PathVariable String id, ServletWebRequest webRequest) {
+        if (ConditionalGet.notModified(webRequest, catalogReadModel.departmentsEtag())) return null;
+        return catalogReadModel.department(id);
     }
 
     @GetMapping("/{id}/students")
@@ -0,0 +1,30 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.entity.EnrollmentRow;
+import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.utils.CursorPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/enrollments")
+public class EnrollmentController {
+
+    @Autowired
+    private CourseService courseService;
+
+    // Flat enrollment rows, optionally filtered by course, by the course's department or by student
+    @GetMapping("")
+    public CursorPage<EnrollmentRow> getEnrollments(
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String departmentId,
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return courseService.getEnrollmentsPage(courseId, departmentId, studentId, cursor, size);
+    }
+
+}
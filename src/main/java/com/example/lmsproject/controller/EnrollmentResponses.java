@@ -0,0 +1,34 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.entity.WaitlistResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+final class EnrollmentResponses {
+
+    private EnrollmentResponses() {
+    }
+
+    static ResponseEntity<EnrollmentResult> toResponse(EnrollmentResult result) {
+        return ResponseEntity.status(statusOf(result)).body(result);
+    }
+
+    static HttpStatus statusOf(EnrollmentResult result) {
+        return switch (result.status()) {
+            case ENROLLED, DROPPED -> HttpStatus.OK;
+            case STUDENT_NOT_FOUND, COURSE_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case ALREADY_ENROLLED, NOT_ENROLLED, COURSE_FULL -> HttpStatus.CONFLICT;
+        };
+    }
+
+    static ResponseEntity<WaitlistResult> toResponse(WaitlistResult result) {
+        HttpStatus status = switch (result.status()) {
+            case WAITING, LEFT -> HttpStatus.OK;
+            case STUDENT_NOT_FOUND, COURSE_NOT_FOUND, NOT_WAITING -> HttpStatus.NOT_FOUND;
+            case ALREADY_WAITING, ALREADY_ENROLLED -> HttpStatus.CONFLICT;
+        };
+        return ResponseEntity.status(status).body(result);
+    }
+
+}
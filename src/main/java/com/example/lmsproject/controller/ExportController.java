@@ -0,0 +1,66 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.service.ExportService;
+import com.example.lmsproject.service.ExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/students")
+    public void exportStudents(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        Format exportFormat = prepare(response, format, "students");
+        exportService.exportStudents(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/lecturers")
+    public void exportLecturers(@RequestParam(defaultValue = "ndjson") String format,
+                                HttpServletResponse response) throws IOException {
+        Format exportFormat = prepare(response, format, "lecturers");
+        exportService.exportLecturers(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/courses")
+    public void exportCourses(@RequestParam(defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        Format exportFormat = prepare(response, format, "courses");
+        exportService.exportCourses(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/enrollments")
+    public void exportEnrollments(@RequestParam(defaultValue = "ndjson") String format,
+                                  HttpServletResponse response) throws IOException {
+        Format exportFormat = prepare(response, format, "enrollments");
+        exportService.exportEnrollments(exportFormat, response.getOutputStream());
+    }
+
+    private Format prepare(HttpServletResponse response, String format, String name) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"");
+        return exportFormat;
+    }
+
+}
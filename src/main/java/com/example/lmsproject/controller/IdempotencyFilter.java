@@ -0,0 +1,257 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.auth.AuthUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+// POST requests carrying an Idempotency-Key header from a signed-in caller run once per key and caller, on
+// whichever node they reach; a retry gets the stored response (status, content type and body) without reaching
+// the controller, a duplicate sent while the first is still running waits for it. Responses with a 5xx status
+// are not stored, so those retries run again. A key reused with another URI or body is refused with 422.
+// Anonymous callers and /api/auth are left alone, they have no caller to scope keys to, and neither are bodies
+// over lms.idempotency.max-request-bytes.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+
+    public IdempotencyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null
+                || request.getRequestURI().substring(request.getContextPath().length()).startsWith("/api/auth/")
+                || !AuthUtils.isSignedIn()
+                || request.getContentLengthLong() > store.maxRequestBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // the body is read ahead to fingerprint it; one without a length that turns out too large passes through
+        byte[] body = request.getInputStream().readNBytes(store.maxRequestBytes() + 1);
+        if (body.length > store.maxRequestBytes()) {
+            filterChain.doFilter(new ReadAheadRequest(request, new SequenceInputStream(new ByteArrayInputStream(body), request.getInputStream())), response);
+            return;
+        }
+        request = new ReadAheadRequest(request, new ByteArrayInputStream(body));
+
+        // keys are per caller, two clients picking the same key never see each other's responses
+        String scopedKey = caller() + '\n' + key;
+        String fingerprint = request.getMethod() + ' ' + request.getRequestURI()
+                + (request.getQueryString() != null ? '?' + request.getQueryString() : "");
+        String bodyHash = sha256(body);
+
+        while (true) {
+
+            IdempotencyStore.StoredResponse stored = store.get(scopedKey);
+            if (stored != null) {
+                replay(stored, fingerprint, bodyHash, response);
+                return;
+            }
+
+            CompletableFuture<IdempotencyStore.StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotencyStore.StoredResponse> owner = store.claim(scopedKey, claim);
+
+            if (owner == null) {
+                // the previous owner may have stored its response between the lookup and the claim
+                stored = store.get(scopedKey);
+                if (stored != null) {
+                    store.finish(scopedKey, claim, stored);
+                    replay(stored, fingerprint, bodyHash, response);
+                    return;
+                }
+                // and the key may have been claimed on another node
+                try {
+                    stored = store.claimShared(scopedKey, fingerprint, bodyHash);
+                } catch (TimeoutException e) {
+                    store.finish(scopedKey, claim, null);
+                    response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                    return;
+                } catch (RuntimeException e) {
+                    store.finish(scopedKey, claim, null);
+                    throw e;
+                }
+                if (stored != null) {
+                    store.finish(scopedKey, claim, stored);
+                    replay(stored, fingerprint, bodyHash, response);
+                    return;
+                }
+                execute(request, response, filterChain, scopedKey, fingerprint, bodyHash, claim);
+                return;
+            }
+
+            try {
+                stored = store.await(owner);
+            } catch (TimeoutException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            }
+            if (stored != null) {
+                replay(stored, fingerprint, bodyHash, response);
+                return;
+            }
+            // the first attempt failed without a stored response, take the key over
+
+        }
+
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scopedKey, String fingerprint, String bodyHash,
+                         CompletableFuture<IdempotencyStore.StoredResponse> claim) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IdempotencyStore.StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            byte[] body = wrapper.getContentAsByteArray();
+            if (store.storable(wrapper.getStatus(), body.length)) {
+                stored = new IdempotencyStore.StoredResponse(fingerprint, bodyHash, wrapper.getStatus(), wrapper.getContentType(), body);
+            }
+        } finally {
+            try {
+                store.record(scopedKey, stored);
+            } finally {
+                store.finish(scopedKey, claim, stored);
+            }
+        }
+        wrapper.copyBodyToResponse();
+
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, String fingerprint, String bodyHash, HttpServletResponse response) throws IOException {
+
+        if (!stored.fingerprint().equals(fingerprint)) {
+            store.mismatched();
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " was already used for " + stored.fingerprint());
+            return;
+        }
+        if (!stored.bodyHash().equals(bodyHash)) {
+            store.mismatched();
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " was already used with a different request body");
+            return;
+        }
+
+        store.replayed();
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Hands the body that was read ahead back to the rest of the chain
+    private static final class ReadAheadRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream inputStream;
+
+        ReadAheadRequest(HttpServletRequest request, InputStream body) {
+            super(request);
+            inputStream = new ServletInputStream() {
+
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = body.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = body.read(buffer, offset, length);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the body is already in memory, so all of it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(inputStream, charset));
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.utils.BoundedCache;
+import com.example.lmsproject.entity.IdempotencyKeyRow;
+import com.example.lmsproject.repository.IdempotencyKeyRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses stored per Idempotency-Key for IdempotencyFilter. Keys are claimed in the shared
+ * idempotency_keys table before the request runs, so a retry that reaches another node finds the
+ * claim: it waits while the request is still running there and then replays the stored response.
+ * A claim whose lease ran out (its node stopped mid-request) is taken over.
+ *
+ * On top of that each node keeps a fast path: finished responses in a cache bounded by entry count
+ * and total bytes, and the requests it is running as futures that duplicates on this node wait on
+ * without polling the table. Rows and cached responses expire after lms.idempotency.ttl-seconds.
+ */
+@Component
+public class IdempotencyStore {
+
+    // fingerprint is the method and URI the key was first used with, bodyHash the SHA-256 of its request body
+    public record StoredResponse(String fingerprint, String bodyHash, int status, String contentType, byte[] body) {}
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Value("${lms.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Stored responses are evicted, least recently used first, once their bodies add up to more than this
+    @Value("${lms.idempotency.max-total-bytes:33554432}")
+    private long maxTotalBytes;
+
+    @Value("${lms.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${lms.idempotency.wait-timeout-seconds:30}")
+    private long waitTimeoutSeconds;
+
+    // A key still running after this long on another node is taken over
+    @Value("${lms.idempotency.lease-seconds:120}")
+    private long leaseSeconds;
+
+    // How often a duplicate checks the table while the request runs on another node
+    @Value("${lms.idempotency.poll-ms:50}")
+    private long pollMillis;
+
+    // Larger responses are not stored, so a retry runs again
+    @Value("${lms.idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    // Requests with larger bodies are not fingerprinted, so they pass through without idempotency
+    @Value("${lms.idempotency.max-request-bytes:1048576}")
+    private int maxRequestBytes;
+
+    private BoundedCache<String, StoredResponse> completed;
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> running = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder replayedFromTable = new LongAdder();
+    private final LongAdder waitedForOtherNode = new LongAdder();
+    private final LongAdder takenOver = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        completed = new BoundedCache<>(maxEntries, maxTotalBytes, IdempotencyStore::weight, ttlSeconds * 1000);
+    }
+
+    // Roughly the bytes an entry holds on to: the body plus the strings and object headers around it
+    private static long weight(StoredResponse response) {
+        return response.body().length + 2L * (response.fingerprint().length() + response.bodyHash().length()) + 256;
+    }
+
+    public StoredResponse get(String key) {
+        return completed.get(key);
+    }
+
+    // Null when the caller now owns the key and must call finish, otherwise the request that owns it
+    public CompletableFuture<StoredResponse> claim(String key, CompletableFuture<StoredResponse> claim) {
+        CompletableFuture<StoredResponse> owner = running.putIfAbsent(key, claim);
+        if (owner == null) executed.increment();
+        return owner;
+    }
+
+    // response is null when it is not to be stored; waiting duplicates then run themselves
+    public void finish(String key, CompletableFuture<StoredResponse> claim, StoredResponse response) {
+        if (response != null) completed.put(key, response);
+        running.remove(key, claim);
+        claim.complete(response);
+    }
+
+    // Called once this node owns the key locally. Null when it now also owns it in the table and must run the
+    // request and call record, otherwise the response another node stored; throws TimeoutException if the
+    // request is still running there after wait-timeout-seconds
+    public StoredResponse claimShared(String key, String fingerprint, String bodyHash) throws TimeoutException {
+
+        String keyHash = keyHash(key);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(waitTimeoutSeconds);
+        boolean waiting = false;
+
+        while (true) {
+            long now = Instant.now().getEpochSecond();
+            if (keyRepository.claim(keyHash, fingerprint, bodyHash, now + leaseSeconds, now + ttlSeconds)) return null;
+
+            IdempotencyKeyRow row = keyRepository.find(keyHash);
+            if (row == null) continue; // released in between, claim it again
+            if (row.expiresAt() < now) {
+                keyRepository.deleteExpired(keyHash, now);
+                continue;
+            }
+            if (row.status() != null) {
+                StoredResponse stored = new StoredResponse(row.fingerprint(), row.bodyHash(), row.status(), row.contentType(),
+                        row.body() != null ? row.body() : new byte[0]);
+                completed.put(key, stored);
+                replayedFromTable.increment();
+                return stored;
+            }
+            if (row.leaseUntil() < now
+                    && keyRepository.takeOver(keyHash, fingerprint, bodyHash, now, now + leaseSeconds, now + ttlSeconds)) {
+                takenOver.increment();
+                return null;
+            }
+
+            if (!waiting) {
+                waiting = true;
+                waitedForOtherNode.increment();
+            }
+            if (System.nanoTime() - deadline > 0) throw new TimeoutException();
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+            }
+        }
+
+    }
+
+    // Stores the response for every node, or gives the key up when response is null so a retry runs again
+    public void record(String key, StoredResponse response) {
+        if (response != null) {
+            keyRepository.complete(keyHash(key), response.status(), response.contentType(), response.body());
+        } else {
+            keyRepository.release(keyHash(key));
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        keyRepository.deleteExpired(Instant.now().getEpochSecond());
+    }
+
+    private static String keyHash(String key) {
+        return IdempotencyFilter.sha256(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null if the owner did not store a response; throws TimeoutException if it is still running
+    public StoredResponse await(CompletableFuture<StoredResponse> owner) throws TimeoutException {
+        waited.increment();
+        try {
+            return owner.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    public boolean storable(int status, int bodyBytes) {
+        return status < 500 && bodyBytes <= maxBodyBytes;
+    }
+
+    int maxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    void replayed() {
+        replayed.increment();
+    }
+
+    void mismatched() {
+        mismatched.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("waitedForDuplicate", waited.sum());
+        stats.put("replayedFromTable", replayedFromTable.sum());
+        stats.put("waitedForOtherNode", waitedForOtherNode.sum());
+        stats.put("takenOver", takenOver.sum());
+        stats.put("keyReusedForOtherRequest", mismatched.sum());
+        stats.put("running", running.size());
+        stats.put("stored", completed.stats());
+        return stats;
+    }
+
+}
@@ -3,13 +3,15 @@ package com.example.lmsproject.controller;
 import com.example.lmsproject.auth.AuthUtils;
 import com.example.lmsproject.entity.Department;
 import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.LecturerProfileView;
 import com.example.lmsproject.entity.PasswordChangeRequest;
+import com.example.lmsproject.service.AggregateVersions;
 import com.example.lmsproject.service.LecturerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/lecturer")
@@ -18,21 +20,31 @@ public class LecturerController {
     @Autowired
     private LecturerService lecturerService;
 
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
     // OP
     @GetMapping("/get/{lecturerId}")
-    public Map<String, String> get(@PathVariable String lecturerId){
+    public ResponseEntity<LecturerProfileView> get(@PathVariable String lecturerId, ServletWebRequest webRequest){
 
-        return lecturerService.get(lecturerId);
+        if (ConditionalGet.notModified(webRequest, aggregateVersions.profileEtag(lecturerId))) return null;
+
+        LecturerProfileView profile = lecturerService.get(lecturerId);
+        return profile != null ? ResponseEntity.ok(profile) : ResponseEntity.notFound().build();
 
     }
 
     // OP
     @GetMapping("/get-lecturer-info")
-    public Map<String, String> get() {
+    public ResponseEntity<LecturerProfileView> get(ServletWebRequest webRequest) {
+
+        String userId = AuthUtils.getUserId();
+        if (userId != null && ConditionalGet.notModified(webRequest, aggregateVersions.profileEtag(userId))) return null;
 
         String userName = AuthUtils.getUserName();
 
-        return lecturerService.getByUsername(userName);
+        LecturerProfileView profile = lecturerService.getByUsername(userName);
+        return profile != null ? ResponseEntity.ok(profile) : ResponseEntity.notFound().build();
 
     }
 
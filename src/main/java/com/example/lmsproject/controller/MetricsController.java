@@ -0,0 +1,116 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.auth.PasswordHashingService;
+import com.example.lmsproject.auth.TokenService;
+import com.example.lmsproject.auth.UserDetailsCache;
+import com.example.lmsproject.config.VirtualThreadDiagnostics;
+import com.example.lmsproject.service.AggregateVersions;
+import com.example.lmsproject.service.EnrollmentBatcher;
+import com.example.lmsproject.service.ProfilePageCache;
+import com.example.lmsproject.service.SeatReservations;
+import com.example.lmsproject.service.StatsRegistry;
+import com.example.lmsproject.service.StudentDirectory;
+import com.example.lmsproject.service.WaitlistService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class MetricsController {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    @Autowired
+    private StudentDirectory studentDirectory;
+
+    @Autowired
+    private ProfilePageCache profilePageCache;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private SeatReservations seatReservations;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private EnrollmentBatcher enrollmentBatcher;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private VirtualThreadDiagnostics virtualThreadDiagnostics;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("")
+    public Map<String, Object> getMetrics() {
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("userDetailsCache", userDetailsCache.stats());
+        metrics.put("passwordHashing", passwordHashingService.stats());
+        metrics.put("tokens", tokenService.stats());
+        metrics.put("dashboardStats", statsRegistry.stats());
+        metrics.put("secondLevelCache", secondLevelCacheStats());
+        metrics.put("studentDirectory", studentDirectory.stats());
+        metrics.put("profilePages", profilePageCache.stats());
+        metrics.put("versions", aggregateVersions.stats());
+        metrics.put("seatReservations", seatReservations.stats());
+        metrics.put("waitlist", waitlistService.stats());
+        metrics.put("enrollmentGroupCommit", enrollmentBatcher.stats());
+        metrics.put("idempotency", idempotencyStore.stats());
+        metrics.put("virtualThreads", virtualThreadDiagnostics.stats());
+
+        return metrics;
+
+    }
+
+    // statements is the total prepared since startup, so the effect of the cache shows as a slower climb
+    private Map<String, Object> secondLevelCacheStats() {
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hits", regionStatistics.getHitCount());
+            regionStats.put("misses", regionStatistics.getMissCount());
+            regionStats.put("puts", regionStatistics.getPutCount());
+            regions.put(region, regionStats);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", statistics.getSecondLevelCacheHitCount());
+        stats.put("misses", statistics.getSecondLevelCacheMissCount());
+        stats.put("statements", statistics.getPrepareStatementCount());
+        stats.put("regions", regions);
+
+        return stats;
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.entity.DashboardStats;
+import com.example.lmsproject.service.StatsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+public class StatsController {
+
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    // Served from memory, no query per request
+    @GetMapping("")
+    public DashboardStats getStats() {
+
+        return statsRegistry.snapshot();
+
+    }
+
+}
@@ -2,14 +2,26 @@ package com.example.lmsproject.controller;
 
 import com.example.lmsproject.auth.AuthUtils;
 import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.entity.ImportSummary;
 import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.StudentDirectoryEntry;
+import com.example.lmsproject.entity.StudentProfileView;
+import com.example.lmsproject.service.AggregateVersions;
 import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.service.EnrollmentBatcher;
+import com.example.lmsproject.service.RosterImportService;
 import com.example.lmsproject.service.StudentService;
+import com.example.lmsproject.utils.CursorPage;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/students")
@@ -19,6 +31,12 @@ public class StudentController {
     private StudentService studentService;
     @Autowired
     private CourseService courseService;
+    @Autowired
+    private RosterImportService rosterImportService;
+    @Autowired
+    private AggregateVersions aggregateVersions;
+    @Autowired
+    private EnrollmentBatcher enrollmentBatcher;
 
     //create
     @PostMapping("")
@@ -26,14 +44,23 @@ public class StudentController {
         return studentService.saveDetails(student);
     }
 
-    @PostMapping("/batch")
-    public List<Student> addStudentLists(@RequestBody List<Student> students) {
-        return studentService.saveAllDetails(students);
+    // Streams the body (JSON array, NDJSON or CSV) and saves it chunk by chunk as it is read
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, RosterImportService.NDJSON, RosterImportService.CSV})
+    public ImportSummary addStudentLists(HttpServletRequest request) throws IOException {
+        return rosterImportService.importStudents(request.getInputStream(), request.getContentType());
     }
 
 
     // read
     @GetMapping("")
+    public CursorPage<Student> getStudents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return studentService.getStudentsPage(cursor, size);
+    }
+
+    // Unpaginated listing, kept for existing clients
+    @GetMapping(value = "", params = "all=true")
     public List<Student> getAllStudents() {
         return studentService.getAllStudents();
     }
@@ -44,9 +71,22 @@ public class StudentController {
     }
 
     @GetMapping("/get-student-info")
-    public Student getStudentInfo() {
+    public ResponseEntity<StudentProfileView> getStudentInfo(ServletWebRequest webRequest) {
+        String userId = AuthUtils.getUserId();
+        if (userId != null && ConditionalGet.notModified(webRequest, aggregateVersions.profileEtag(userId))) return null;
+
         String userName = AuthUtils.getUserName();
-        return studentService.findByUsername(userName);
+        StudentProfileView profile = studentService.getProfile(userName);
+        return profile != null ? ResponseEntity.ok(profile) : ResponseEntity.notFound().build();
+    }
+
+    // Public profile, looked up by student ID
+    @GetMapping("/profile/{studentId}")
+    public ResponseEntity<StudentProfileView> getPublicProfile(@PathVariable String studentId, ServletWebRequest webRequest) {
+        StudentDirectoryEntry student = studentService.lookupByStudentId(studentId);
+        if (student == null) return ResponseEntity.notFound().build();
+        if (ConditionalGet.notModified(webRequest, aggregateVersions.profileEtag(student.userId()))) return null;
+        return ResponseEntity.ok(studentService.getPublicProfile(student));
     }
 
     //update
@@ -75,6 +115,14 @@ public class StudentController {
     }
 
     @GetMapping("/department/{departmentId}")
+    public CursorPage<Student> getStudentsPageByDepartment(
+            @PathVariable String departmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return studentService.getStudentsPageByDepartmentId(departmentId, cursor, size);
+    }
+
+    @GetMapping(value = "/department/{departmentId}", params = "all=true")
     public List<Student> getStudentsByDepartment(@PathVariable String departmentId) {
         return studentService.getStudentsByDepartmentId(departmentId);
     }
@@ -87,21 +135,21 @@ public class StudentController {
     }
 
     @PostMapping("/{studentId}/enroll/{courseId}")
-    public Course enrollInCourse(
+    public ResponseEntity<EnrollmentResult> enrollInCourse(
             @PathVariable String studentId,
             @PathVariable String courseId) {
 
-        return courseService.enrollStudentInCourse(studentId, courseId);
+        return EnrollmentResponses.toResponse(enrollmentBatcher.enroll(studentId, courseId));
 
     }
 
 
     @DeleteMapping("/{studentId}/drop/{courseId}")
-    public Course dropCourse(
+    public ResponseEntity<EnrollmentResult> dropCourse(
             @PathVariable String studentId,
             @PathVariable String courseId) {
 
-       return courseService.dropStudentFromCourse(studentId, courseId);
+       return EnrollmentResponses.toResponse(enrollmentBatcher.drop(studentId, courseId));
 
     }
 
@@ -0,0 +1,66 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.auth.LmsUserDetails;
+import com.example.lmsproject.auth.TokenService;
+import com.example.lmsproject.entity.TokenRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+public class TokenController {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @PostMapping("/token")
+    public ResponseEntity<?> token(@RequestBody TokenRequest request) {
+
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword())
+            );
+            return ResponseEntity.ok(tokenService.issue((LmsUserDetails) authentication.getPrincipal()));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
+        }
+
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody TokenRequest request) {
+
+        TokenService.IssuedTokens tokens = tokenService.refresh(request.getRefreshToken());
+
+        if (tokens == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+        return ResponseEntity.ok(tokens);
+
+    }
+
+    // Logout for token clients, accepts a refresh or access token
+    @PostMapping("/revoke")
+    public ResponseEntity<String> revoke(@RequestBody TokenRequest request) {
+
+        if (tokenService.revoke(request.getRefreshToken())) {
+            return ResponseEntity.ok("Token revoked");
+        } else {
+            return ResponseEntity.badRequest().body("Token revocation failed");
+        }
+
+    }
+
+}
@@ -1,21 +1,42 @@
 package com.example.lmsproject.controller;
 
+import com.example.lmsproject.auth.AuthUtils;
+import com.example.lmsproject.service.ProfilePageCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
 @Controller
 public class WebController {
 
+    @Autowired
+    private ProfilePageCache profilePageCache;
+
+    // Public profile pages come out of ProfilePageCache with the profile already rendered in.
+    // /lecturer/** is open to everyone; contact details and courses are only shown to callers
+    // who could read them from /api/lecturer/**, which requires ROLE_LECTURER.
     @GetMapping("/lecturer/{lecturerId}")
-    public String lecturerProfile(@PathVariable String lecturerId, Model model) {
-        model.addAttribute("lecturerId", lecturerId);
-        return "lecturer-profile";
+    public ResponseEntity<String> lecturerProfile(@PathVariable String lecturerId) {
+        return toResponse(profilePageCache.lecturerPage(lecturerId, AuthUtils.hasRole("LECTURER")));
+    }
+
+    @GetMapping("/student/{studentId}")
+    public ResponseEntity<String> studentProfile(@PathVariable String studentId) {
+        return toResponse(profilePageCache.studentPage(studentId));
     }
 
     @GetMapping("/manage-lecturer")
     public String manageLecturer() {
         return "manage-lecturer";
     }
+
+    private static ResponseEntity<String> toResponse(ProfilePageCache.Page page) {
+        return ResponseEntity.status(page.found() ? HttpStatus.OK : HttpStatus.NOT_FOUND)
+                .contentType(MediaType.TEXT_HTML)
+                .body(page.html());
+    }
 }
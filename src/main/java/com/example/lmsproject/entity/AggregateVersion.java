@@ -0,0 +1,25 @@
+package com.example.lmsproject.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Maps the aggregate_versions table behind AggregateVersions; rows are read and written through
+// AggregateVersionRepository. A missing row is version 0.
+@Entity
+@Table(name = "aggregate_versions")
+@Data
+@NoArgsConstructor
+public class AggregateVersion {
+
+    @Id
+    @Column(name = "aggregate", length = 64)
+    private String aggregate;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+}
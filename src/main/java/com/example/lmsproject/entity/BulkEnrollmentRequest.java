@@ -0,0 +1,18 @@
+package com.example.lmsproject.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+public class BulkEnrollmentRequest {
+
+    @Getter
+    @Setter
+    private List<String> courseIds;
+
+    @Getter
+    @Setter
+    private List<String> studentIds;
+
+}
@@ -0,0 +1,6 @@
+package com.example.lmsproject.entity;
+
+import java.util.List;
+
+public record BulkEnrollmentResult(int enrolled, int skipped, long elapsedMillis, List<EnrollmentResult> results) {
+}
@@ -4,19 +4,29 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "courses")
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Course {
 
+    // Identity is the ID only, hashing the associations would walk (and load) the whole graph
     @Id
+    @EqualsAndHashCode.Include
     private String courseId;
 
     @Column(nullable = false, unique = true)
@@ -27,14 +37,32 @@ public class Course {
     @JoinColumn(name = "department_id")
     private Department department;
 
+    // Seats on offer, null for no limit
+    private Integer capacity;
+
+    // True when the request body had a capacity property (Jackson only calls setCapacity then), so an
+    // update that leaves it out keeps the current limit
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    private boolean capacityGiven;
+
+    // Only ever changed in SQL by SeatReservations, so the entity never writes it and may hold a stale copy
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private int seatsTaken;
+
     // MANY-TO-MANY: Course has many students
     @ManyToMany(mappedBy = "courses", fetch = FetchType.LAZY)
     @JsonIgnore // Prevent circular reference
+    @ToString.Exclude
     private List<Student> students = new ArrayList<>();
 
     // MANY-TO-MANY: Course has many lecturers
     @ManyToMany(mappedBy = "lecturingCourses", fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private List<Lecturer> lecturers = new ArrayList<>();
 
 
@@ -45,6 +73,11 @@ public class Course {
         this.lecturers = lecturers;
     }
 
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+        this.capacityGiven = true;
+    }
+
 
 }
 
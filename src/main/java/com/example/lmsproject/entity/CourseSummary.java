@@ -0,0 +1,4 @@
+package com.example.lmsproject.entity;
+
+// ID and name only, for embedding courses in other views without touching the Course graph
+public record CourseSummary(String courseId, String courseName) {}
@@ -0,0 +1,16 @@
+package com.example.lmsproject.entity;
+
+import java.time.Instant;
+import java.util.Map;
+
+// studentsPerDepartment is keyed by department ID and leaves out students without a department
+public record DashboardStats(
+        long admins,
+        long lecturers,
+        long lics,
+        long students,
+        long courses,
+        long departments,
+        long enrollments,
+        Map<String, Long> studentsPerDepartment,
+        Instant reconciledAt) {}
@@ -0,0 +1,11 @@
+package com.example.lmsproject.entity;
+
+// One enroll or drop waiting in the group-commit queue; studentId is the student's user ID
+public record EnrollmentChange(Action action, String studentId, String courseId) {
+
+    public enum Action {
+        ENROLL,
+        DROP
+    }
+
+}
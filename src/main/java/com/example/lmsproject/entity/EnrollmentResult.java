@@ -0,0 +1,23 @@
+package com.example.lmsproject.entity;
+
+public record EnrollmentResult(Status status, String studentId, String courseId) {
+
+    public enum Status {
+        ENROLLED,
+        DROPPED,
+        ALREADY_ENROLLED,
+        NOT_ENROLLED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        COURSE_FULL
+    }
+
+    public static EnrollmentResult of(Status status, String studentId, String courseId) {
+        return new EnrollmentResult(status, studentId, courseId);
+    }
+
+    public boolean isSuccess() {
+        return status == Status.ENROLLED || status == Status.DROPPED;
+    }
+
+}
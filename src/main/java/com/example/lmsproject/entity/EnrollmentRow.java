@@ -0,0 +1,10 @@
+package com.example.lmsproject.entity;
+
+// One row of the enrollment feed; studentId is the student's user ID, as used by the enroll/drop endpoints
+public record EnrollmentRow(
+        String studentId,
+        String studentNumber,
+        String firstName,
+        String lastName,
+        String courseId,
+        String courseName) {}
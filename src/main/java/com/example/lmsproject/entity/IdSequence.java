@@ -0,0 +1,26 @@
+package com.example.lmsproject.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// hi/lo sequence row, next_value is the first value no node has reserved yet
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    @Column(name = "prefix")
+    private String prefix;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+}
@@ -0,0 +1,47 @@
+package com.example.lmsproject.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Maps the idempotency_keys table behind IdempotencyStore; rows are read and written through
+// IdempotencyKeyRepository. A row without a status is a request still running on some node.
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyKey {
+
+    // SHA-256 of the caller and the key, which together can be longer than an index allows
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    // method and URI the key was first used with
+    @Column(name = "fingerprint", nullable = false, length = 2048)
+    private String fingerprint;
+
+    @Column(name = "body_hash", nullable = false, length = 64)
+    private String bodyHash;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "body", length = 16_777_215)
+    private byte[] body;
+
+    // epoch seconds after which another node may take over a request that is still running
+    @Column(name = "lease_until", nullable = false)
+    private long leaseUntil;
+
+    // epoch seconds
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+}
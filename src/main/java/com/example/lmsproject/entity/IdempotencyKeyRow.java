@@ -0,0 +1,6 @@
+package com.example.lmsproject.entity;
+
+// One row of idempotency_keys; status, contentType and body are null while the request is running
+public record IdempotencyKeyRow(String fingerprint, String bodyHash, Integer status, String contentType, byte[] body,
+                                long leaseUntil, long expiresAt) {
+}
@@ -0,0 +1,10 @@
+package com.example.lmsproject.entity;
+
+import java.util.List;
+
+// errors holds the first few rejected lines only, failed has the full count
+public record ImportSummary(long received, long created, long failed, List<LineError> errors) {
+
+    public record LineError(long line, String message) {}
+
+}
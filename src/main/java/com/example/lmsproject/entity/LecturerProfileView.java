@@ -0,0 +1,47 @@
+package com.example.lmsproject.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record LecturerProfileView(
+        String lecturerID,
+        String username,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        @JsonProperty("isLIC") boolean isLIC,
+        String departmentId,
+        String departmentName,
+        List<CourseSummary> courses) {
+
+    // Folds the rows of LecturerRepo.findProfileBy*: one row per course, or a single row with null course columns
+    public static LecturerProfileView from(List<Tuple> rows) {
+
+        if (rows.isEmpty()) return null;
+
+        Tuple first = rows.get(0);
+        List<CourseSummary> courses = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            String courseId = row.get("courseId", String.class);
+            if (courseId != null) courses.add(new CourseSummary(courseId, row.get("courseName", String.class)));
+        }
+
+        return new LecturerProfileView(
+                first.get("lecturerID", String.class),
+                first.get("username", String.class),
+                first.get("firstName", String.class),
+                first.get("lastName", String.class),
+                first.get("email", String.class),
+                first.get("phone", String.class),
+                first.get("isLIC", Boolean.class),
+                first.get("departmentId", String.class),
+                first.get("departmentName", String.class),
+                courses);
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.example.lmsproject.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Maps the revoked_tokens table behind TokenRevocationList; rows are read and written through
+// RevokedTokenRepository and deleted once the token would have expired anyway.
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    // epoch seconds
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+}
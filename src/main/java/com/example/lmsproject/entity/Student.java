@@ -4,9 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
 @Data
@@ -26,13 +27,17 @@ public class Student extends User {
 
 
     // MANY-TO-MANY: Student has many courses
+    // A Set so Hibernate changes single rows instead of rewriting the student's whole join table slice.
+    // Enroll/drop write the join table directly through EnrollmentRepository.
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "student_enrollments",
             joinColumns = @JoinColumn(name = "student_id"),
-            inverseJoinColumns = @JoinColumn(name = "course_id")
+            inverseJoinColumns = @JoinColumn(name = "course_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_student_enrollments_student_course", columnNames = {"student_id", "course_id"})
     )
-    private List<Course> courses = new ArrayList<>();
+    @ToString.Exclude
+    private Set<Course> courses = new HashSet<>();
 
 
 
@@ -52,11 +57,11 @@ public class Student extends User {
         this.department = department;
     }
 
-    public List<Course> getCourses() {
+    public Set<Course> getCourses() {
         return courses;
     }
 
-    public void setCourses(List<Course> courses) {
+    public void setCourses(Set<Course> courses) {
         this.courses = courses;
     }
 }
\ No newline at end of file
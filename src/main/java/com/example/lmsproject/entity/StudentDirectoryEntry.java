@@ -0,0 +1,32 @@
+package com.example.lmsproject.entity;
+
+// The scalar columns of a student, as held by StudentDirectory
+public record StudentDirectoryEntry(
+        String userId,
+        String studentId,
+        String username,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String dateOfBirth,
+        String gender,
+        String departmentId) {
+
+    public static StudentDirectoryEntry from(Student student) {
+        if (student == null) return null;
+        Department department = student.getDepartment();
+        return new StudentDirectoryEntry(
+                student.getUserId(),
+                student.getStudentId(),
+                student.getUsername(),
+                student.getFirstName(),
+                student.getLastName(),
+                student.getEmail(),
+                student.getPhone(),
+                student.getDateOfBirth(),
+                student.getGender(),
+                department != null ? department.getDepartmentId() : null);
+    }
+
+}
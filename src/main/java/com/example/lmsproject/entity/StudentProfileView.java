@@ -0,0 +1,17 @@
+package com.example.lmsproject.entity;
+
+import java.util.List;
+
+public record StudentProfileView(
+        String userId,
+        String studentId,
+        String username,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String dateOfBirth,
+        String gender,
+        String departmentId,
+        String departmentName,
+        List<CourseSummary> courses) {}
@@ -0,0 +1,20 @@
+package com.example.lmsproject.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+public class TokenRequest {
+
+    @Getter
+    @Setter
+    private String username;
+
+    @Getter
+    @Setter
+    private String password;
+
+    @Getter
+    @Setter
+    private String refreshToken;
+
+}
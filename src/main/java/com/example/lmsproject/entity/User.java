@@ -1,8 +1,11 @@
 package com.example.lmsproject.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Data
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
@@ -27,6 +30,13 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    // Refresh tokens issued before this are refused; null if the password was never changed
+    @Getter
+    @Setter
+    @JsonIgnore
+    @Column(name = "password_changed_at")
+    private Instant passwordChangedAt;
+
     @Getter
     @Setter
     @Column(name = "first_name")
@@ -0,0 +1,48 @@
+package com.example.lmsproject.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+// Maps the course_waitlist table; rows are read and written through WaitlistRepository.
+// Deleting the course or the student deletes their waitlist rows in the database.
+@Entity
+@Table(name = "course_waitlist",
+        uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_course_student", columnNames = {"course_id", "student_id"}),
+        indexes = @Index(name = "idx_waitlist_order", columnList = "course_id, priority DESC, seq"))
+@Data
+@NoArgsConstructor
+public class WaitlistEntry {
+
+    // Increases with every join, so it gives first come first served order within a priority
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Course course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Student student;
+
+    // Higher goes first
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int priority;
+
+    @Column(name = "joined_at", nullable = false)
+    private Instant joinedAt;
+
+}
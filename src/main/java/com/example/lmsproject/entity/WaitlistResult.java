@@ -0,0 +1,20 @@
+package com.example.lmsproject.entity;
+
+// position is 1 for the next student to be promoted and null when the student is not waiting
+public record WaitlistResult(Status status, String studentId, String courseId, Integer position, int waiting) {
+
+    public enum Status {
+        WAITING,
+        LEFT,
+        ALREADY_WAITING,
+        NOT_WAITING,
+        ALREADY_ENROLLED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND
+    }
+
+    public static WaitlistResult of(Status status, String studentId, String courseId) {
+        return new WaitlistResult(status, studentId, courseId, null, 0);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.lmsproject.entity;
+
+import java.util.Comparator;
+
+// One waiting student of a course; studentId is the student's user ID, as used by the enroll/drop endpoints
+public record WaitlistRow(long seq, String studentId, int priority) {
+
+    // Promotion order: higher priority first, then whoever joined first
+    public static final Comparator<WaitlistRow> PROMOTION_ORDER =
+            Comparator.comparingInt(WaitlistRow::priority).reversed().thenComparingLong(WaitlistRow::seq);
+
+}
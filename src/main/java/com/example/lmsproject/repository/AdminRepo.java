@@ -2,7 +2,6 @@ package com.example.lmsproject.repository;
 
 import com.example.lmsproject.entity.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -12,12 +11,4 @@ public interface AdminRepo extends JpaRepository<Admin, String> {
     Admin findByUserId(String userID);
     List<Admin> findByRole(String role);
 
-    @Query("SELECT u.id FROM User u ORDER BY u.id DESC")
-    List<String> findAllUserIdsOrderByIdDesc();
-
-    default String getLastUserID() {
-        List<String> ids = findAllUserIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.getFirst();
-    }
-
 }
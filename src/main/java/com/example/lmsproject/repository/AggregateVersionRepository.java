@@ -0,0 +1,42 @@
+package com.example.lmsproject.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The aggregate_versions table, one row per aggregate that has been written at least once
+@Repository
+public class AggregateVersionRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long find(String aggregate) {
+        List<Long> version = jdbcTemplate.queryForList(
+                "SELECT version FROM aggregate_versions WHERE aggregate = ?", Long.class, aggregate);
+        return version.isEmpty() ? 0L : version.get(0);
+    }
+
+    // Every aggregate whose name starts with prefix, keyed by the rest of the name
+    public Map<String, Long> findByPrefix(String prefix) {
+        Map<String, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT aggregate, version FROM aggregate_versions WHERE aggregate LIKE ?",
+                (RowCallbackHandler) rs -> versions.put(rs.getString("aggregate").substring(prefix.length()), rs.getLong("version")),
+                prefix + "%");
+        return versions;
+    }
+
+    // Pass the aggregates sorted, so concurrent transactions lock the rows in the same order
+    public void increment(Collection<String> aggregates) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO aggregate_versions (aggregate, version) VALUES (?, 1) ON DUPLICATE KEY UPDATE version = version + 1",
+                aggregates.stream().map(aggregate -> new Object[]{aggregate}).toList());
+    }
+
+}
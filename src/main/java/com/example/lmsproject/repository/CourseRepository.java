@@ -1,12 +1,19 @@
 package com.example.lmsproject.repository;
 
 import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.utils.Utils;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 @Repository
@@ -14,21 +21,28 @@ public interface CourseRepository extends JpaRepository<Course, String> {
 
     Course findByCourseId(String courseId);
 
+    @EntityGraph(attributePaths = "department")
     List<Course> findByDepartmentId(String departmentId);
 
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Course> findAll();
+
+    @Query("SELECT c FROM Student s JOIN s.courses c LEFT JOIN FETCH c.department WHERE s.userId = :studentId")
+    List<Course> findByEnrolledStudentId(@Param("studentId") String studentId);
+
     Optional<Course> findByCourseName(String courseName);
 
     boolean existsByCourseId(String courseId);
 
     boolean existsByCourseName(String courseName);
 
-    @Query("SELECT courseId FROM Course ORDER BY courseId DESC")
-    List<String> findAllCourseIdsOrderByIdDesc();
+    // Forward-only cursor for exports, read inside a transaction and close the stream when done
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Utils.STREAMING_FETCH_SIZE))
+    @Query("SELECT c FROM Course c LEFT JOIN FETCH c.department ORDER BY c.courseId")
+    Stream<Course> streamAll();
 
-    // Helper methods to get last IDs
-    default String getLastCourseId() {
-        List<String> ids = findAllCourseIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.get(0);
-    }
+    @Query("SELECT c.courseId FROM Course c WHERE c.courseId IN :ids")
+    List<String> findExistingCourseIds(@Param("ids") Collection<String> ids);
 
 }
\ No newline at end of file
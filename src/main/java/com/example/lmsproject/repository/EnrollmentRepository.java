@@ -0,0 +1,210 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.CourseSummary;
+import com.example.lmsproject.entity.EnrollmentRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.example.lmsproject.utils.Utils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Works on the student_enrollments join table directly so a change never loads a student's course collection
+@Repository
+public class EnrollmentRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // One forward-only scan of the whole join table, rows are handed to the handler as they arrive
+    public void streamAll(RowCallbackHandler handler) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        streaming.query("SELECT student_id, course_id FROM student_enrollments ORDER BY student_id, course_id", handler);
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_enrollments", Long.class);
+    }
+
+    public long countForStudent(String studentId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_enrollments WHERE student_id = ?", Long.class, studentId);
+    }
+
+    public long countForCourse(String courseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_enrollments WHERE course_id = ?", Long.class, courseId);
+    }
+
+    public boolean exists(String studentId, String courseId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT 1 FROM student_enrollments WHERE student_id = ? AND course_id = ? LIMIT 1",
+                Integer.class, studentId, courseId);
+        return !rows.isEmpty();
+    }
+
+    // Throws DuplicateKeyException if a concurrent request enrolled the same pair first
+    public void insert(String studentId, String courseId) {
+        jdbcTemplate.update("INSERT INTO student_enrollments (student_id, course_id) VALUES (?, ?)", studentId, courseId);
+    }
+
+    public boolean delete(String studentId, String courseId) {
+        return jdbcTemplate.update("DELETE FROM student_enrollments WHERE student_id = ? AND course_id = ?", studentId, courseId) > 0;
+    }
+
+    // Pairs are {studentId, courseId}, sent as one JDBC batch
+    public void deleteAll(List<String[]> pairs) {
+        jdbcTemplate.batchUpdate("DELETE FROM student_enrollments WHERE student_id = ? AND course_id = ?",
+                pairs.stream().map(pair -> new Object[]{pair[0], pair[1]}).toList());
+    }
+
+    // Seat counter on courses.seats_taken, see SeatReservations. Each statement locks the course row until the transaction ends.
+
+    public boolean takeSeat(String courseId) {
+        return jdbcTemplate.update(
+                "UPDATE courses SET seats_taken = seats_taken + 1 WHERE course_id = ? AND (capacity IS NULL OR seats_taken < capacity)",
+                courseId) > 0;
+    }
+
+    public void releaseSeat(String courseId) {
+        jdbcTemplate.update("UPDATE courses SET seats_taken = seats_taken - 1 WHERE course_id = ? AND seats_taken > 0", courseId);
+    }
+
+    // Seats left, Integer.MAX_VALUE when the course has no capacity and 0 when it does not exist.
+    // Negative when the capacity was lowered below the seats already taken.
+    public int lockSeatsLeft(String courseId) {
+        List<Integer> rows = jdbcTemplate.query(
+                "SELECT capacity - seats_taken AS seats_left FROM courses WHERE course_id = ? FOR UPDATE",
+                (rs, rowNum) -> {
+                    int seatsLeft = rs.getInt("seats_left");
+                    return rs.wasNull() ? Integer.MAX_VALUE : seatsLeft;
+                },
+                courseId);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    public void recountSeats(String courseId) {
+        jdbcTemplate.update(
+                "UPDATE courses SET seats_taken = (SELECT COUNT(*) FROM student_enrollments e WHERE e.course_id = ?) WHERE course_id = ?",
+                courseId, courseId);
+    }
+
+    public void recountAllSeats() {
+        jdbcTemplate.update(
+                "UPDATE courses c SET seats_taken = (SELECT COUNT(*) FROM student_enrollments e WHERE e.course_id = c.course_id)");
+    }
+
+    // One keyset page of the join table with the student and course columns joined in, ordered by
+    // (student_id, course_id), the columns of the uk_student_enrollments_student_course unique index. Filters are optional;
+    // departmentId matches the course's department. afterStudentId/afterCourseId come from the last row of the previous page.
+    public List<EnrollmentRow> findPage(String courseId, String departmentId, String studentId,
+                                        String afterStudentId, String afterCourseId, int limit) {
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT e.student_id, s.student_id AS student_number, u.first_name, u.last_name, e.course_id, c.course_name " +
+                "FROM student_enrollments e " +
+                "JOIN students s ON s.user_id = e.student_id " +
+                "JOIN `user` u ON u.user_id = e.student_id " +
+                "JOIN courses c ON c.course_id = e.course_id " +
+                "WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+
+        if (courseId != null) {
+            sql.append(" AND e.course_id = :courseId");
+            params.addValue("courseId", courseId);
+        }
+        if (departmentId != null) {
+            sql.append(" AND c.department_id = :departmentId");
+            params.addValue("departmentId", departmentId);
+        }
+        if (studentId != null) {
+            sql.append(" AND e.student_id = :studentId");
+            params.addValue("studentId", studentId);
+        }
+        if (afterStudentId != null) {
+            sql.append(" AND (e.student_id > :afterStudentId OR (e.student_id = :afterStudentId AND e.course_id > :afterCourseId))");
+            params.addValue("afterStudentId", afterStudentId).addValue("afterCourseId", afterCourseId);
+        }
+        sql.append(" ORDER BY e.student_id, e.course_id LIMIT :limit");
+
+        return namedParameterJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new EnrollmentRow(
+                rs.getString("student_id"),
+                rs.getString("student_number"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("course_id"),
+                rs.getString("course_name")));
+    }
+
+    public List<CourseSummary> findCourseSummaries(String studentId) {
+        return jdbcTemplate.query(
+                "SELECT c.course_id, c.course_name FROM student_enrollments e JOIN courses c ON c.course_id = e.course_id " +
+                "WHERE e.student_id = ? ORDER BY c.course_id",
+                (rs, rowNum) -> new CourseSummary(rs.getString("course_id"), rs.getString("course_name")),
+                studentId);
+    }
+
+    public Set<String> findEnrolledStudentIds(String courseId, List<String> studentIds) {
+        Set<String> enrolled = new HashSet<>();
+
+        for (List<String> chunk : Utils.chunks(studentIds, Utils.IN_CLAUSE_CHUNK)) {
+            enrolled.addAll(namedParameterJdbcTemplate.queryForList(
+                    "SELECT student_id FROM student_enrollments WHERE course_id = :courseId AND student_id IN (:studentIds)",
+                    new MapSqlParameterSource("courseId", courseId).addValue("studentIds", chunk),
+                    String.class));
+        }
+
+        return enrolled;
+    }
+
+    // Pairs are {studentId, courseId}. Sent as JDBC batches of batchSize (rewritten into multi-row
+    // inserts by the MySQL driver). Returns whether each pair was written: INSERT IGNORE skips a pair
+    // that is already enrolled and one whose student or course was deleted meanwhile. A rewritten batch
+    // reports SUCCESS_NO_INFO for its rows, those pairs are looked up afterwards; the callers hold the
+    // course row locks every enrollment path takes, so a pair found there is one this batch wrote.
+    public boolean[] insertAll(List<String[]> pairs, int batchSize) {
+        boolean[] inserted = new boolean[pairs.size()];
+        if (pairs.isEmpty()) return inserted;
+
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO student_enrollments (student_id, course_id) VALUES (?, ?)",
+                pairs,
+                batchSize,
+                (statement, pair) -> {
+                    statement.setString(1, pair[0]);
+                    statement.setString(2, pair[1]);
+                });
+
+        Map<String, List<Integer>> unreported = new HashMap<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unreported.computeIfAbsent(pairs.get(index)[1], k -> new ArrayList<>()).add(index);
+                } else {
+                    inserted[index] = count > 0;
+                }
+                index++;
+            }
+        }
+
+        unreported.forEach((courseId, indexes) -> {
+            Set<String> enrolled = findEnrolledStudentIds(courseId, indexes.stream().map(i -> pairs.get(i)[0]).toList());
+            for (int i : indexes) inserted[i] = enrolled.contains(pairs.get(i)[0]);
+        });
+
+        return inserted;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.IdSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM IdSequence s WHERE s.prefix = :prefix")
+    IdSequence findForUpdate(@Param("prefix") String prefix);
+
+    // Used once per prefix to seed the sequence from the data already in the tables
+    @Query("SELECT MAX(u.userId) FROM User u")
+    String findMaxUserId();
+
+    @Query("SELECT MAX(s.studentId) FROM Student s")
+    String findMaxStudentId();
+
+    @Query("SELECT MAX(l.lecturerID) FROM Lecturer l")
+    String findMaxLecturerId();
+
+    @Query("SELECT MAX(c.courseId) FROM Course c")
+    String findMaxCourseId();
+
+    @Query("SELECT MAX(d.departmentId) FROM Department d")
+    String findMaxDepartmentId();
+
+}
@@ -0,0 +1,60 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.IdempotencyKeyRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// The idempotency_keys table, one row per key claimed on any node that has not expired yet
+@Repository
+public class IdempotencyKeyRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // False if the key is already claimed, on whichever node
+    public boolean claim(String keyHash, String fingerprint, String bodyHash, long leaseUntil, long expiresAt) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO idempotency_keys (key_hash, fingerprint, body_hash, lease_until, expires_at) VALUES (?, ?, ?, ?, ?)",
+                keyHash, fingerprint, bodyHash, leaseUntil, expiresAt) > 0;
+    }
+
+    public IdempotencyKeyRow find(String keyHash) {
+        List<IdempotencyKeyRow> rows = jdbcTemplate.query(
+                "SELECT fingerprint, body_hash, status, content_type, body, lease_until, expires_at FROM idempotency_keys WHERE key_hash = ?",
+                (rs, rowNum) -> new IdempotencyKeyRow(rs.getString("fingerprint"), rs.getString("body_hash"),
+                        rs.getObject("status", Integer.class), rs.getString("content_type"), rs.getBytes("body"),
+                        rs.getLong("lease_until"), rs.getLong("expires_at")),
+                keyHash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Claims a running key whose lease ran out, left behind by a node that stopped mid-request
+    public boolean takeOver(String keyHash, String fingerprint, String bodyHash, long now, long leaseUntil, long expiresAt) {
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET fingerprint = ?, body_hash = ?, lease_until = ?, expires_at = ? " +
+                        "WHERE key_hash = ? AND status IS NULL AND lease_until < ?",
+                fingerprint, bodyHash, leaseUntil, expiresAt, keyHash, now) > 0;
+    }
+
+    public void complete(String keyHash, int status, String contentType, byte[] body) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, content_type = ?, body = ? WHERE key_hash = ?",
+                status, contentType, body, keyHash);
+    }
+
+    // Gives up a running key, so the next attempt runs the request again
+    public void release(String keyHash) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND status IS NULL", keyHash);
+    }
+
+    public int deleteExpired(String keyHash, long now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND expires_at < ?", keyHash, now);
+    }
+
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", now);
+    }
+
+}
@@ -1,34 +1,59 @@
 package com.example.lmsproject.repository;
 
 import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.utils.Utils;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface LecturerRepo extends JpaRepository<Lecturer, String> {
 
+    // Profile projection: scalar columns only, one row per lecturing course (see LecturerProfileView.from)
+    String PROFILE_SELECT = "SELECT l.lecturerID AS lecturerID, l.username AS username, l.firstName AS firstName, " +
+            "l.lastName AS lastName, l.email AS email, l.phone AS phone, l.isLIC AS isLIC, " +
+            "d.departmentId AS departmentId, d.name AS departmentName, c.courseId AS courseId, c.courseName AS courseName " +
+            "FROM Lecturer l LEFT JOIN l.department d LEFT JOIN l.lecturingCourses c ";
+
+    @Query(PROFILE_SELECT + "WHERE l.lecturerID = :lecturerID ORDER BY c.courseName")
+    List<Tuple> findProfileByLecturerID(@Param("lecturerID") String lecturerID);
+
+    @Query(PROFILE_SELECT + "WHERE l.username = :username ORDER BY c.courseName")
+    List<Tuple> findProfileByUsername(@Param("username") String username);
+
     Lecturer findByLecturerID(String lecturerID);
     Lecturer findByUsername(String username);
     //List<Lecturer> findByDepartment(String department);
+    @EntityGraph(attributePaths = "department")
     List<Lecturer> findByRole(String role);
 
-    @Query("SELECT u.userId FROM User u ORDER BY u.userId DESC") // u.id
-    List<String> findAllUserIdsOrderByIdDesc();
+    @EntityGraph(attributePaths = "department")
+    List<Lecturer> findByRoleOrderByUserIdAsc(String role, Limit limit);
 
-    @Query("SELECT lecturerID FROM Lecturer ORDER BY lecturerID DESC")
-    List<String> findAllLecturerIdsOrderByIdDesc();
+    @EntityGraph(attributePaths = "department")
+    List<Lecturer> findByRoleAndUserIdGreaterThanOrderByUserIdAsc(String role, String userId, Limit limit);
 
-    // Helper methods to get last IDs
-    default String getLastUserID() {
-        List<String> ids = findAllUserIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.getFirst();
-    }
+    @Query("SELECT COUNT(l) FROM Lecturer l WHERE l.isLIC = true")
+    long countLics();
 
-    default String getLastLecturerID() {
-        List<String> ids = findAllLecturerIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.getFirst();
-    }
+    // Forward-only cursor for exports, read inside a transaction and close the stream when done
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Utils.STREAMING_FETCH_SIZE))
+    @Query("SELECT l FROM Lecturer l LEFT JOIN FETCH l.department ORDER BY l.userId")
+    Stream<Lecturer> streamAll();
 
+    // Keyset pagination helper, afterUserId is null for the first page
+    default List<Lecturer> findPageByRole(String role, String afterUserId, int limit) {
+        return afterUserId == null
+                ? findByRoleOrderByUserIdAsc(role, Limit.of(limit))
+                : findByRoleAndUserIdGreaterThanOrderByUserIdAsc(role, afterUserId, Limit.of(limit));
+    }
 
 }
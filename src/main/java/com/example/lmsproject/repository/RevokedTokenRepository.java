@@ -0,0 +1,37 @@
+package com.example.lmsproject.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The revoked_tokens table, one row per revoked or used token ID that has not expired yet
+@Repository
+public class RevokedTokenRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // False if the token ID is already there, on whichever node it was revoked
+    public boolean insert(String jti, long expiresAt) {
+        return jdbcTemplate.update("INSERT IGNORE INTO revoked_tokens (jti, expires_at) VALUES (?, ?)", jti, expiresAt) > 0;
+    }
+
+    // token ID -> expiry, epoch seconds
+    public Map<String, Long> findUnexpired(long now) {
+        Map<String, Long> revoked = new HashMap<>();
+        jdbcTemplate.query("SELECT jti, expires_at FROM revoked_tokens WHERE expires_at >= ?",
+                rs -> {
+                    revoked.put(rs.getString(1), rs.getLong(2));
+                },
+                now);
+        return revoked;
+    }
+
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?", now);
+    }
+
+}
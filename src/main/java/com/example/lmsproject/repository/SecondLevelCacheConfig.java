@@ -0,0 +1,74 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Builds the second-level cache regions from application properties and hands the
+ * CacheManager to Hibernate. Every region is heap-bounded by entry count and expires
+ * entries after a TTL; a region that is not listed here fails startup
+ * (missing_cache_strategy=fail) instead of silently growing unbounded. The regions are
+ * local to the node, CatalogSync evicts them when another node changes the catalog.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String DEPARTMENT_REGION = Department.class.getName();
+    public static final String COURSE_REGION = Course.class.getName();
+    public static final String DEPARTMENT_COURSES_REGION = Department.class.getName() + ".courses";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${lms.cache.departments.max-entries:1000}") long departmentEntries,
+            @Value("${lms.cache.departments.ttl-seconds:60}") long departmentTtl,
+            @Value("${lms.cache.courses.max-entries:10000}") long courseEntries,
+            @Value("${lms.cache.courses.ttl-seconds:60}") long courseTtl,
+            @Value("${lms.cache.department-courses.max-entries:1000}") long departmentCoursesEntries,
+            @Value("${lms.cache.department-courses.ttl-seconds:60}") long departmentCoursesTtl) {
+
+        // a manager of its own rather than the provider's default one, which is shared by every application
+        // context in the JVM: a second context (tests) would find the regions taken, and closing one would close both
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("lms-second-level-cache-" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+
+        createRegion(cacheManager, DEPARTMENT_REGION, departmentEntries, departmentTtl);
+        createRegion(cacheManager, COURSE_REGION, courseEntries, courseTtl);
+        createRegion(cacheManager, DEPARTMENT_COURSES_REGION, departmentCoursesEntries, departmentCoursesTtl);
+
+        return cacheManager;
+
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxEntries, long ttlSeconds) {
+
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))
+                        .build()));
+
+    }
+
+}
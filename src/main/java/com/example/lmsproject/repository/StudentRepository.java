@@ -2,34 +2,78 @@ package com.example.lmsproject.repository;
 
 
 import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.utils.Utils;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, String> {
+
+    // Full graph for unpaged reads: students, their department, their courses and each course's department in one statement
+    @EntityGraph(attributePaths = {"department", "courses", "courses.department"})
     List<Student> findByDepartmentDepartmentId(String departmentId);
 
+    @Override
+    @EntityGraph(attributePaths = {"department", "courses", "courses.department"})
+    List<Student> findAll();
+
+    @EntityGraph(attributePaths = {"department", "courses", "courses.department"})
+    @Query("SELECT s FROM Student s JOIN s.courses enrolled WHERE enrolled.courseId = :courseId")
+    List<Student> findByEnrolledCourseId(@Param("courseId") String courseId);
+
     Student findByStudentId(String StudentId);
 
     Student findByUsername(String username);
 
-    @Query("SELECT u.userId FROM User u ORDER BY u.userId DESC")
-    List<String> findAllUserIdsOrderByIdDesc();
+    // One row per department that has students: departmentId, students
+    @Query("SELECT d.departmentId AS departmentId, COUNT(s) AS students FROM Student s JOIN s.department d GROUP BY d.departmentId")
+    List<Tuple> countByDepartment();
+
+    // Forward-only cursor for exports, read inside a transaction and close the stream when done
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Utils.STREAMING_FETCH_SIZE))
+    @Query("SELECT s FROM Student s LEFT JOIN FETCH s.department ORDER BY s.userId")
+    Stream<Student> streamAll();
+
+    @Query("SELECT s.userId FROM Student s WHERE s.userId IN :ids")
+    List<String> findExistingUserIds(@Param("ids") Collection<String> ids);
 
-    @Query("SELECT studentId FROM Student ORDER BY studentId DESC")
-    List<String> findAllStudentIdsOrderByIdDesc();
+    // Paged reads only join the department; fetching a collection together with a limit would page in memory,
+    // so course lists are batch loaded (hibernate.default_batch_fetch_size) per page instead
+    @EntityGraph(attributePaths = "department")
+    List<Student> findAllByOrderByUserIdAsc(Limit limit);
 
-    // Helper methods to get last IDs
-    default String getLastUserID() {
-        List<String> ids = findAllUserIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.getFirst();
+    @EntityGraph(attributePaths = "department")
+    List<Student> findByUserIdGreaterThanOrderByUserIdAsc(String userId, Limit limit);
+
+    @EntityGraph(attributePaths = "department")
+    List<Student> findByDepartmentDepartmentIdOrderByUserIdAsc(String departmentId, Limit limit);
+
+    @EntityGraph(attributePaths = "department")
+    List<Student> findByDepartmentDepartmentIdAndUserIdGreaterThanOrderByUserIdAsc(String departmentId, String userId, Limit limit);
+
+    // Keyset pagination helpers, afterUserId is null for the first page
+    default List<Student> findPage(String afterUserId, int limit) {
+        return afterUserId == null
+                ? findAllByOrderByUserIdAsc(Limit.of(limit))
+                : findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, Limit.of(limit));
     }
 
-    default String getLastStudentId() {
-        List<String> ids = findAllStudentIdsOrderByIdDesc();
-        return ids.isEmpty() ? null : ids.getFirst();
+    default List<Student> findPageByDepartment(String departmentId, String afterUserId, int limit) {
+        return afterUserId == null
+                ? findByDepartmentDepartmentIdOrderByUserIdAsc(departmentId, Limit.of(limit))
+                : findByDepartmentDepartmentIdAndUserIdGreaterThanOrderByUserIdAsc(departmentId, afterUserId, Limit.of(limit));
     }
+
 }
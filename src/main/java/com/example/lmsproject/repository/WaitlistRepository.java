@@ -0,0 +1,92 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.WaitlistRow;
+import com.example.lmsproject.utils.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// The course_waitlist table, in promotion order (priority DESC, seq) which the table's index follows
+@Repository
+public class WaitlistRepository {
+
+    private static final RowMapper<WaitlistRow> ROW_MAPPER = (rs, rowNum) ->
+            new WaitlistRow(rs.getLong("seq"), rs.getString("student_id"), rs.getInt("priority"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Returns the new row; throws DuplicateKeyException if the student is already waiting for the course
+    public WaitlistRow insert(String courseId, String studentId, int priority) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO course_waitlist (course_id, student_id, priority, joined_at) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, courseId);
+            statement.setString(2, studentId);
+            statement.setInt(3, priority);
+            statement.setTimestamp(4, Timestamp.from(Instant.now()));
+            return statement;
+        }, keys);
+        return new WaitlistRow(keys.getKey().longValue(), studentId, priority);
+    }
+
+    public boolean delete(String courseId, String studentId) {
+        return jdbcTemplate.update("DELETE FROM course_waitlist WHERE course_id = ? AND student_id = ?", courseId, studentId) > 0;
+    }
+
+    public void deleteAll(List<WaitlistRow> rows) {
+        jdbcTemplate.batchUpdate("DELETE FROM course_waitlist WHERE seq = ?",
+                rows.stream().map(row -> new Object[]{row.seq()}).toList());
+    }
+
+    public boolean hasWaiting(String courseId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM course_waitlist WHERE course_id = ? LIMIT 1", Integer.class, courseId).isEmpty();
+    }
+
+    public List<WaitlistRow> findByCourse(String courseId) {
+        return jdbcTemplate.query(
+                "SELECT seq, student_id, priority FROM course_waitlist WHERE course_id = ? ORDER BY priority DESC, seq",
+                ROW_MAPPER, courseId);
+    }
+
+    // The next students in line, locked so a concurrent leave waits for the promotion to commit
+    public List<WaitlistRow> lockHead(String courseId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT seq, student_id, priority FROM course_waitlist WHERE course_id = ? ORDER BY priority DESC, seq LIMIT ? FOR UPDATE",
+                ROW_MAPPER, courseId, limit);
+    }
+
+    public Set<String> findWaitingCourseIds(List<String> courseIds) {
+        Set<String> waiting = new HashSet<>();
+        for (List<String> chunk : Utils.chunks(courseIds, Utils.IN_CLAUSE_CHUNK)) {
+            waiting.addAll(namedParameterJdbcTemplate.queryForList(
+                    "SELECT DISTINCT course_id FROM course_waitlist WHERE course_id IN (:courseIds)",
+                    new MapSqlParameterSource("courseIds", chunk),
+                    String.class));
+        }
+        return waiting;
+    }
+
+    public List<String> findWaitingCourseIds() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT course_id FROM course_waitlist", String.class);
+    }
+
+}
@@ -1,25 +1,35 @@
 package com.example.lmsproject.service;
 
-import com.example.lmsproject.auth.PWEncoder;
+import com.example.lmsproject.auth.PasswordHashingService;
+import com.example.lmsproject.auth.UserDetailsCache;
 import com.example.lmsproject.entity.Admin;
+import com.example.lmsproject.entity.Course;
 import com.example.lmsproject.entity.Department;
 import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.Student;
 import com.example.lmsproject.repository.AdminRepo;
+import com.example.lmsproject.repository.CourseRepository;
 import com.example.lmsproject.repository.DepartmentRepository;
 import com.example.lmsproject.repository.LecturerRepo;
-import com.example.lmsproject.utils.Utils;
-import org.json.JSONObject;
+import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.utils.IdPrefix;
+import com.example.lmsproject.utils.JsonRows;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import org.json.JSONArray;
+import java.util.stream.Stream;
 
 @Service
-public class AdminService implements UserService<Admin> {
+public class AdminService implements UserService<Admin, Map<String, String>> {
 
     @Autowired
     private AdminRepo adminRepo;
@@ -30,22 +40,45 @@ public class AdminService implements UserService<Admin> {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private IdSequenceService idSequenceService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private StatsRegistry statsRegistry;
+
     public Admin create(Admin admin){
 
-        String lastUserID = adminRepo.getLastUserID();
-        if(lastUserID != null){
-            admin.setUserId(Utils.nextId(lastUserID));
-        } else {
-            admin.setUserId("USER-0000001");
-        }
+        admin.setUserId(idSequenceService.nextId(IdPrefix.USER));
 
         admin.setRole("ADMIN");
         admin.setAdminStatus(true);
-        admin.setPassword(PWEncoder.encode(admin.getPassword()));
+        admin.setPassword(passwordHashingService.encode(admin.getPassword()));
 
-        return adminRepo.save(admin);
+        Admin saved = adminRepo.save(admin);
+        statsRegistry.add(StatsRegistry.Counter.ADMINS, 1);
+        return saved;
     }
 
+    // The login version is bumped in the same transaction, so no node accepts the old credentials once it commits
+    @Transactional
     public boolean delete(String userName){
 
         Admin admin = adminRepo.findByUsername(userName);
@@ -55,14 +88,20 @@ public class AdminService implements UserService<Admin> {
         }
 
         adminRepo.delete(admin);
+        userDetailsCache.evict(userName);
+        statsRegistry.add(StatsRegistry.Counter.ADMINS, -1);
         return true;
 
     }
 
+    @Transactional
     public Admin changePassword(String userName, String password){
         Admin admin = adminRepo.findByUsername(userName);
-        admin.setPassword(PWEncoder.encode(password));
-        return adminRepo.save(admin);
+        admin.setPassword(passwordHashingService.encode(password));
+        admin.setPasswordChangedAt(Instant.now());
+        Admin saved = adminRepo.save(admin);
+        userDetailsCache.evict(userName);
+        return saved;
     }
 
     public Admin update(Admin admin, String userName){
@@ -75,10 +114,14 @@ public class AdminService implements UserService<Admin> {
             adminToUpdate.setFirstName(admin.getFirstName());
             adminToUpdate.setLastName(admin.getLastName());
             adminToUpdate.setDateOfBirth(admin.getDateOfBirth());
-            return adminRepo.save(adminToUpdate);
+            Admin saved = adminRepo.save(adminToUpdate);
+            userDetailsCache.evict(userName);
+            return saved;
         }
 
-        return adminRepo.save(admin);
+        Admin saved = adminRepo.save(admin);
+        userDetailsCache.evict(admin.getUsername());
+        return saved;
     }
 
     public Map<String, String> get(String userName){
@@ -100,70 +143,38 @@ public class AdminService implements UserService<Admin> {
         if (lecturer != null && department != null) {
             lecturer.setDepartment(department);
             lecturerRepo.save(lecturer);
+            aggregateVersions.bumpProfile(lecturer.getUserId(), lecturer.getLecturerID());
             return true;
         }
 
         return false;
     }
 
-    public JSONArray getAllAdmins() {
-
-        List<Admin> allAdmins = adminRepo.findByRole("ADMIN");
-
-        JSONArray jsonArray = new JSONArray();
-
-        for(Admin admin : allAdmins){
-
-            JSONObject adminJson = new JSONObject();
-
-            adminJson.put("userId", admin.getUserId());
-            adminJson.put("username", admin.getUsername());
-            adminJson.put("firstName", admin.getFirstName());
-            adminJson.put("lastName", admin.getLastName());
-            adminJson.put("email", admin.getEmail());
-            adminJson.put("phone", admin.getPhone());
-            adminJson.put("role", admin.getRole());
-            adminJson.put("adminStatus", admin.isAdminStatus());
-
-            jsonArray.put(adminJson);
-        }
-
-        return jsonArray;
+    // Listings are written row by row straight to the response stream
 
+    public void writeAllAdmins(OutputStream out) throws IOException {
+        JsonRows.writeArray(out, adminRepo.findByRole("ADMIN").iterator(), JsonRows.ADMIN);
     }
 
-    public JSONArray getAllDepartments() {
-
-        List<Department> allDepartments = departmentRepository.findAll();
-
-        JSONArray jsonArray = new JSONArray();
-
-        for(Department department : allDepartments){
-
-            JSONObject departmentJson = new JSONObject();
-
-            departmentJson.put("id", department.getId());
-            departmentJson.put("name", department.getName());
-            departmentJson.put("description", department.getDescription());
-
-            jsonArray.put(departmentJson);
-        }
-
-        return jsonArray;
-
+    public void writeAllDepartments(OutputStream out) throws IOException {
+        JsonRows.writeArray(out, departmentRepository.findAll().iterator(), JsonRows.DEPARTMENT);
     }
 
+    // Courses and students can be large, so they are read through a forward-only cursor
+    // and detached as they are written
 
-    public JSONArray getAllCourses() {
-
-
-        return new JSONArray();
+    @Transactional(readOnly = true)
+    public void writeAllCourses(OutputStream out) throws IOException {
+        try (Stream<Course> courses = courseRepository.streamAll()) {
+            JsonRows.writeArray(out, courses.peek(entityManager::detach).iterator(), JsonRows.COURSE);
+        }
     }
 
-    public JSONArray getAllStudents() {
-
-
-        return new JSONArray();
+    @Transactional(readOnly = true)
+    public void writeAllStudents(OutputStream out) throws IOException {
+        try (Stream<Student> students = studentRepository.streamAll()) {
+            JsonRows.writeArray(out, students.peek(entityManager::detach).iterator(), JsonRows.STUDENT);
+        }
     }
 
 }
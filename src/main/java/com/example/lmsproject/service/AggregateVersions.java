@@ -0,0 +1,165 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.repository.AggregateVersionRepository;
+import com.example.lmsproject.utils.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Version counters for the read models clients poll: the course catalog, the department list
+ * and each user profile. Every write through the service layer bumps the counters it affects,
+ * and controllers turn them into strong ETags so a matching If-None-Match is answered with 304
+ * before the read model is queried. A login counter per username tells each node's login cache
+ * when the credentials it holds were changed, on any node, and the revocations counter tells it
+ * when tokens were revoked. The student directory checks its entries against the profile counters.
+ *
+ * The counters live in the aggregate_versions table and are incremented in the writing
+ * transaction, just before it commits, so every node derives the same ETag from the same data.
+ * Each node caches the values it reads for lms.versions.ttl-ms: its own writes show up at once,
+ * writes made on other nodes within that time. Writes that bypass the services are not seen.
+ */
+@Component
+public class AggregateVersions {
+
+    public static final String COURSES = "courses";
+    public static final String DEPARTMENTS = "departments";
+    public static final String REVOCATIONS = "revocations";
+    private static final String PROFILE = "profile:";
+    private static final String LOGIN = "login:";
+
+    @Autowired
+    private AggregateVersionRepository versionRepository;
+
+    @Value("${lms.versions.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${lms.versions.ttl-ms:1000}")
+    private long ttlMillis;
+
+    private BoundedCache<String, Long> versions;
+
+    @PostConstruct
+    void init() {
+        versions = new BoundedCache<>(maxEntries, ttlMillis);
+    }
+
+    // Inside a transaction the increment is written just before it commits, otherwise immediately
+    public void bump(String aggregate) {
+        bumpAll(List.of(aggregate));
+    }
+
+    // Profiles are keyed by any stable user identifier (user ID, lecturer ID); pass every one a view is served under
+    public void bumpProfile(String... ids) {
+        bumpProfiles(List.of(ids));
+    }
+
+    public void bumpProfiles(Collection<String> ids) {
+        List<String> aggregates = ids.stream().filter(id -> id != null).map(id -> PROFILE + id).toList();
+        if (!aggregates.isEmpty()) bumpAll(aggregates);
+    }
+
+    // After a password, role or profile change of the user, or its delete
+    public void bumpLogin(String username) {
+        bump(LOGIN + username);
+    }
+
+    public long loginVersion(String username) {
+        return current(LOGIN + username);
+    }
+
+    // From the per-node cache, so it trails writes made on other nodes by up to lms.versions.ttl-ms, as the ETags do
+    public long profileVersion(String id) {
+        return versions.get(PROFILE + id, versionRepository::find);
+    }
+
+    // Every profile version, keyed by ID, read from the table
+    public Map<String, Long> profileVersions() {
+        return versionRepository.findByPrefix(PROFILE);
+    }
+
+    // Read from the table on every call, never from the per-node cache, for checks that must not lag behind a committed change
+    public long current(String aggregate) {
+        return versionRepository.find(aggregate);
+    }
+
+    public String catalogEtag() {
+        return etag(COURSES, DEPARTMENTS);
+    }
+
+    public String departmentsEtag() {
+        return etag(DEPARTMENTS);
+    }
+
+    // Profiles embed course and department names, so those versions are part of the tag
+    public String profileEtag(String id) {
+        return etag(PROFILE + id, COURSES, DEPARTMENTS);
+    }
+
+    public Map<String, Long> stats() {
+        return versions.stats();
+    }
+
+    private String etag(String... aggregates) {
+
+        StringBuilder etag = new StringBuilder("\"v");
+        for (String aggregate : aggregates) {
+            etag.append('-').append(versions.get(aggregate, versionRepository::find));
+        }
+        return etag.append('"').toString();
+
+    }
+
+    private void bumpAll(Collection<String> aggregates) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<String> sorted = new TreeSet<>(aggregates);
+            versionRepository.increment(sorted);
+            sorted.forEach(versions::invalidate);
+            return;
+        }
+
+        // One increment per transaction, however many writes it makes
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingBumps pending && pending.owner() == this) {
+                pending.aggregates.addAll(aggregates);
+                return;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        pending.aggregates.addAll(aggregates);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+
+    }
+
+    // Collected per transaction and written in sorted order so concurrent writers never deadlock on the rows
+    private final class PendingBumps implements TransactionSynchronization {
+
+        private final Set<String> aggregates = new TreeSet<>();
+
+        AggregateVersions owner() {
+            return AggregateVersions.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            versionRepository.increment(aggregates);
+        }
+
+        @Override
+        public void afterCommit() {
+            aggregates.forEach(versions::invalidate);
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Department;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Inserts a batch of new users in one transaction with JDBC batching, flushing and clearing every
+// lms.users.batch-size rows. Shared by StudentService.saveAllDetails and LecturerService.createAll.
+@Component
+public class BatchInserter {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows per JDBC batch and per flush/clear cycle
+    @Value("${lms.users.batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate batchTransaction;
+
+    @PostConstruct
+    void init() {
+        batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> void insertAll(List<T> rows, Function<T, Department> department, BiConsumer<T, Department> setDepartment) {
+        batchTransaction.executeWithoutResult(status -> persistInChunks(rows, department, setDepartment));
+    }
+
+    private <T> void persistInChunks(List<T> rows, Function<T, Department> department, BiConsumer<T, Department> setDepartment) {
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        for (int i = 0; i < rows.size(); i++) {
+            T row = rows.get(i);
+
+            // only the FK is needed, don't load or cascade into the department
+            Department given = department.apply(row);
+            if (given != null && given.getId() != null) {
+                setDepartment.accept(row, entityManager.getReference(Department.class, given.getId()));
+            } else {
+                setDepartment.accept(row, null);
+            }
+
+            // persist, unlike save/merge, does not select each row before inserting it
+            entityManager.persist(row);
+
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+}
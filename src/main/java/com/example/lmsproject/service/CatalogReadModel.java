@@ -0,0 +1,299 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.repository.CourseRepository;
+import com.example.lmsproject.repository.DepartmentRepository;
+import com.example.lmsproject.utils.AfterCommit;
+import com.example.lmsproject.utils.CursorPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The course catalog (departments and their courses) held as an immutable snapshot of
+ * pre-serialized JSON. Reads never touch the database or Jackson: single items are returned
+ * as stored, listings are stored whole, and cursor pages are stitched together from the
+ * per-item byte arrays. Course and department writes rebuild a new snapshot after they
+ * commit and swap it in; readers keep whichever snapshot they started with.
+ *
+ * The JSON is produced by the application's ObjectMapper from the same entities the
+ * controllers used to return, so the wire format is unchanged.
+ *
+ * ETags for these endpoints are a hash of the snapshot itself, so a snapshot rebuilt with
+ * writes from other nodes (or by the scheduled refresh) gets a new tag, and nodes holding the
+ * same catalog hand out the same tag.
+ */
+@Component
+public class CatalogReadModel {
+
+    private static final byte[] PAGE_START = bytes("{\"items\":[");
+    private static final byte[] PAGE_END = bytes("],\"nextCursor\":");
+    private static final byte[] EMPTY_ARRAY = bytes("[]");
+    private static final byte[] NULL = bytes("null");
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate buildTransaction;
+
+    private volatile Snapshot snapshot;
+
+    // Refresh requests are numbered; a build covers every request made before it started reading
+    private final AtomicLong requested = new AtomicLong();
+    private long built;
+    // A lock rather than a monitor, the build waits on the database (see IdBlockAllocator)
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        // A new transaction (and EntityManager) even when called from another transaction's afterCommit
+        buildTransaction = new TransactionTemplate(transactionManager);
+        buildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        buildTransaction.setReadOnly(true);
+    }
+
+    public byte[] coursesPage(String cursor, Integer size) {
+        return current().courses.page(cursor, size);
+    }
+
+    public byte[] allCourses() {
+        return current().courses.all;
+    }
+
+    // null when there is no such course
+    public byte[] course(String courseId) {
+        return current().courses.get(courseId);
+    }
+
+    public byte[] coursesByDepartment(String departmentId) {
+        return current().coursesByDepartment.getOrDefault(departmentId, EMPTY_ARRAY);
+    }
+
+    public byte[] departmentsPage(String cursor, Integer size) {
+        return current().departments.page(cursor, size);
+    }
+
+    public byte[] allDepartments() {
+        return current().departments.all;
+    }
+
+    // null when there is no such department
+    public byte[] department(String departmentId) {
+        return current().departments.get(departmentId);
+    }
+
+    // Covers every course and department endpoint. Read the tag before the body: a swap in between
+    // then pairs an old tag with a new body, which costs one extra 200 but never a stale 304
+    public String catalogEtag() {
+        return current().catalogEtag;
+    }
+
+    public String departmentsEtag() {
+        return current().departmentsEtag;
+    }
+
+    public void refreshAfterCommit() {
+        AfterCommit.run(this::refresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+
+        long request = requested.incrementAndGet();
+
+        buildLock.lock();
+        try {
+            if (built >= request) return;
+            long covers = requested.get();
+            snapshot = buildTransaction.execute(status -> build());
+            built = covers;
+        } finally {
+            buildLock.unlock();
+        }
+
+    }
+
+    // Backstop for writes CatalogSync cannot see, such as ones made outside the application
+    @Scheduled(fixedDelayString = "${lms.catalog.refresh-interval-ms:60000}",
+            initialDelayString = "${lms.catalog.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private Snapshot build() {
+
+        List<Course> courses = new ArrayList<>(courseRepository.findAll());
+        courses.sort(Comparator.comparing(Course::getCourseId));
+        List<Department> departments = new ArrayList<>(departmentRepository.findAll());
+        departments.sort(Comparator.comparing(Department::getId));
+
+        ObjectWriter writer = objectMapper.writer();
+        Items courseItems = Items.of(courses, Course::getCourseId, writer);
+        Items departmentItems = Items.of(departments, Department::getId, writer);
+
+        Map<String, List<byte[]>> grouped = new LinkedHashMap<>();
+        for (int i = 0; i < courses.size(); i++) {
+            Department department = courses.get(i).getDepartment();
+            if (department != null) {
+                grouped.computeIfAbsent(department.getId(), k -> new ArrayList<>()).add(courseItems.json[i]);
+            }
+        }
+        Map<String, byte[]> coursesByDepartment = new HashMap<>();
+        grouped.forEach((departmentId, json) -> coursesByDepartment.put(departmentId, array(json, 0, json.size())));
+
+        return new Snapshot(courseItems, departmentItems, Map.copyOf(coursesByDepartment),
+                etag(courseItems.all, departmentItems.all), etag(departmentItems.all));
+
+    }
+
+    private record Snapshot(Items courses, Items departments, Map<String, byte[]> coursesByDepartment,
+                            String catalogEtag, String departmentsEtag) {}
+
+    private static String etag(byte[]... json) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (byte[] part : json) digest.update(part);
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    // One listing: keys sorted ascending, with each item's JSON at the same index
+    private static final class Items {
+
+        private final String[] keys;
+        private final byte[][] json;
+        private final byte[] all;
+
+        private Items(String[] keys, byte[][] json) {
+            this.keys = keys;
+            this.json = json;
+            this.all = array(Arrays.asList(json), 0, json.length);
+        }
+
+        static <T> Items of(List<T> sorted, Function<T, String> key, ObjectWriter writer) {
+            String[] keys = new String[sorted.size()];
+            byte[][] json = new byte[sorted.size()][];
+            for (int i = 0; i < sorted.size(); i++) {
+                keys[i] = key.apply(sorted.get(i));
+                try {
+                    json[i] = writer.writeValueAsBytes(sorted.get(i));
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return new Items(keys, json);
+        }
+
+        byte[] get(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? json[index] : null;
+        }
+
+        // Same contract as CursorPage: items strictly after the cursor key, nextCursor only when more remain
+        byte[] page(String cursor, Integer size) {
+
+            int pageSize = CursorPage.clampSize(size);
+            String after = CursorPage.decode(cursor);
+
+            int from = 0;
+            if (after != null) {
+                int index = Arrays.binarySearch(keys, after);
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            int to = Math.min(from + pageSize, keys.length);
+            byte[] nextCursor = to < keys.length ? bytes("\"" + CursorPage.encode(keys[to - 1]) + "\"") : NULL;
+
+            byte[] items = array(Arrays.asList(json), from, to);
+            // items is "[...]"; the page reuses everything between the brackets
+            int itemsLength = items.length - 2;
+            byte[] page = new byte[PAGE_START.length + itemsLength + PAGE_END.length + nextCursor.length + 1];
+            int offset = 0;
+            System.arraycopy(PAGE_START, 0, page, offset, PAGE_START.length);
+            offset += PAGE_START.length;
+            System.arraycopy(items, 1, page, offset, itemsLength);
+            offset += itemsLength;
+            System.arraycopy(PAGE_END, 0, page, offset, PAGE_END.length);
+            offset += PAGE_END.length;
+            System.arraycopy(nextCursor, 0, page, offset, nextCursor.length);
+            offset += nextCursor.length;
+            page[offset] = '}';
+
+            return page;
+
+        }
+
+    }
+
+    // JSON array of json[from, to)
+    private static byte[] array(List<byte[]> json, int from, int to) {
+
+        int length = 2 + Math.max(0, to - from - 1);
+        for (int i = from; i < to; i++) length += json.get(i).length;
+
+        byte[] array = new byte[length];
+        int offset = 0;
+        array[offset++] = '[';
+        for (int i = from; i < to; i++) {
+            if (i > from) array[offset++] = ',';
+            byte[] item = json.get(i);
+            System.arraycopy(item, 0, array, offset, item.length);
+            offset += item.length;
+        }
+        array[offset] = ']';
+
+        return array;
+
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
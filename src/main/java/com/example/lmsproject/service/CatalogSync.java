@@ -0,0 +1,53 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.repository.SecondLevelCacheConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings this node's second-level cache regions and catalog snapshot up to date with course and
+ * department writes made on other nodes. Those writes bump the shared "courses" and "departments"
+ * versions; every lms.cache.remote-check-interval-ms both are polled, and when either moved the
+ * Department, Course and Department.courses regions are evicted and the catalog is rebuilt from the
+ * database. This node's own writes move the versions too and cost one extra eviction, which is
+ * cheap next to how rarely the catalog changes.
+ */
+@Component
+public class CatalogSync {
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    // versions the regions were last checked at, -1 before the first check
+    private volatile long courses = -1;
+    private volatile long departments = -1;
+
+    // Reads the versions before evicting, so a write committed in between is picked up next time
+    @Scheduled(fixedDelayString = "${lms.cache.remote-check-interval-ms:1000}")
+    public void sync() {
+        long currentCourses = aggregateVersions.current(AggregateVersions.COURSES);
+        long currentDepartments = aggregateVersions.current(AggregateVersions.DEPARTMENTS);
+        if (currentCourses == courses && currentDepartments == departments) return;
+        courses = currentCourses;
+        departments = currentDepartments;
+
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Department.class);
+        cache.evictEntityData(Course.class);
+        cache.evictCollectionData(SecondLevelCacheConfig.DEPARTMENT_COURSES_REGION);
+
+        catalogReadModel.refresh();
+    }
+
+}
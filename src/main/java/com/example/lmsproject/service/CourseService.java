@@ -1,17 +1,34 @@
 package com.example.lmsproject.service;
 
+import com.example.lmsproject.entity.BulkEnrollmentResult;
 import com.example.lmsproject.entity.Course;
-import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.entity.EnrollmentChange;
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.entity.EnrollmentRow;
 import com.example.lmsproject.entity.Student;
 import com.example.lmsproject.repository.CourseRepository;
 import com.example.lmsproject.repository.DepartmentRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
 import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.utils.CursorPage;
+import com.example.lmsproject.utils.IdPrefix;
+import com.example.lmsproject.utils.InvalidCursorException;
 import com.example.lmsproject.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class CourseService {
@@ -25,17 +42,43 @@ public class CourseService {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private IdSequenceService idSequenceService;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+
+    @Autowired
+    private SeatReservations seatReservations;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    private static final char ENROLLMENT_KEY_SEPARATOR = '|';
+
+    // Rows per JDBC batch when writing enrollments in bulk
+    @Value("${lms.enrollment.batch-size:500}")
+    private int enrollmentBatchSize;
+
 
     public Course saveCourse(Course course) {
-        String lastCourseId = courseRepository.getLastCourseId();
-        if(lastCourseId != null){
-            course.setCourseId(Utils.nextId(lastCourseId));
-        }
-        else {
-            course.setCourseId("CRS-00001");
-        }
+        checkCapacity(course);
+        course.setCourseId(idSequenceService.nextId(IdPrefix.COURSE));
 
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        catalogReadModel.refreshAfterCommit();
+        aggregateVersions.bump(AggregateVersions.COURSES);
+        statsRegistry.add(StatsRegistry.Counter.COURSES, 1);
+        return saved;
     }
 
     public List<Course> getAllCourses() {
@@ -51,94 +94,326 @@ public class CourseService {
     }
 
     public Course updateCourse(String id, Course updatedCourse) {
+        checkCapacity(updatedCourse);
         Course course = courseRepository.findById(id).orElse(null);
         if (course != null) {
             course.setCourseName(updatedCourse.getCourseName());
             course.setDepartment(updatedCourse.getDepartment());
-            return courseRepository.save(course);
+            boolean capacityChanged = updatedCourse.isCapacityGiven()
+                    && !Objects.equals(course.getCapacity(), updatedCourse.getCapacity());
+            if (capacityChanged) course.setCapacity(updatedCourse.getCapacity());
+            Course saved = courseRepository.save(course);
+            if (capacityChanged) {
+                seatReservations.capacityChanged(id);
+                waitlistService.seatFreed(id);
+            }
+            catalogReadModel.refreshAfterCommit();
+            aggregateVersions.bump(AggregateVersions.COURSES);
+            return saved;
         }
         return null;
     }
 
+    // A negative capacity would leave seats_taken < capacity false forever and read as negative seats left
+    private static void checkCapacity(Course course) {
+        if (course.getCapacity() != null && course.getCapacity() < 0) {
+            throw new InvalidCapacityException(course.getCapacity());
+        }
+    }
+
     public boolean deleteCourse(String id) {
         if (courseRepository.existsById(id)) {
+            long enrollments = enrollmentRepository.countForCourse(id);
             courseRepository.deleteById(id);
+            waitlistService.courseDeleted(id);
+            catalogReadModel.refreshAfterCommit();
+            aggregateVersions.bump(AggregateVersions.COURSES);
+            statsRegistry.add(StatsRegistry.Counter.COURSES, -1);
+            statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, -enrollments);
             return true;
         }
         return false;
     }
 
     //enroll
-    public Course enrollStudentInCourse(String studentId, String courseId) {
-        Student student = studentRepository.findById(studentId).orElse(null);
-        Course course = courseRepository.findById(courseId).orElse(null);
+    @Transactional
+    public EnrollmentResult enrollStudentInCourse(String studentId, String courseId) {
 
-        if (student == null) {
-            System.out.println("Student not found");
-            return null;
+        if (!studentRepository.existsById(studentId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.STUDENT_NOT_FOUND, studentId, courseId);
         }
-        if (course == null) {
-            System.out.println("Course not found");
-            return null;
-
+        if (!courseRepository.existsById(courseId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.COURSE_NOT_FOUND, studentId, courseId);
         }
 
         // check if already enrolled
-        if (student.getCourses().contains(course)) {
-            System.out.println("Student already enrolled");
-            return null;
+        if (enrollmentRepository.exists(studentId, courseId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.ALREADY_ENROLLED, studentId, courseId);
+        }
+
+        // freed seats go to the waitlist first; reserve holds the course row until commit,
+        // so enrollments into one course queue up here
+        if (waitlistService.hasWaiting(courseId) || !seatReservations.reserve(courseId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.COURSE_FULL, studentId, courseId);
+        }
+
+        // the unique constraint on the join table catches a concurrent enroll of the same pair
+        try {
+            enrollmentRepository.insert(studentId, courseId);
+        } catch (DuplicateKeyException e) {
+            seatReservations.release(courseId);
+            return EnrollmentResult.of(EnrollmentResult.Status.ALREADY_ENROLLED, studentId, courseId);
+        }
+
+        aggregateVersions.bumpProfile(studentId);
+        statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, 1);
+        return EnrollmentResult.of(EnrollmentResult.Status.ENROLLED, studentId, courseId);
+    }
+
+
+    @Transactional
+    public EnrollmentResult dropStudentFromCourse(String studentId, String courseId) {
+
+        if (enrollmentRepository.delete(studentId, courseId)) {
+            seatReservations.release(courseId);
+            waitlistService.seatFreed(courseId);
+            aggregateVersions.bumpProfile(studentId);
+            statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, -1);
+            return EnrollmentResult.of(EnrollmentResult.Status.DROPPED, studentId, courseId);
+        }
+
+        // nothing deleted, work out why
+        if (!studentRepository.existsById(studentId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.STUDENT_NOT_FOUND, studentId, courseId);
+        }
+        if (!courseRepository.existsById(courseId)) {
+            return EnrollmentResult.of(EnrollmentResult.Status.COURSE_NOT_FOUND, studentId, courseId);
+        }
+        return EnrollmentResult.of(EnrollmentResult.Status.NOT_ENROLLED, studentId, courseId);
+    }
+
+    // Applies enroll/drop changes from the group-commit queue in one transaction. Each change gets the
+    // result it would have had on its own, run in queue order: the enrollments of the batch's students
+    // and the seats left are read up front (course rows locked in sorted order, as bulkEnroll does),
+    // the changes are played against that state in memory, and only the net difference is written.
+    @Transactional
+    public List<EnrollmentResult> applyEnrollmentChanges(List<EnrollmentChange> changes) {
+
+        List<String> courses = new ArrayList<>(new LinkedHashSet<>(changes.stream().map(EnrollmentChange::courseId).toList()));
+        List<String> students = new ArrayList<>(new LinkedHashSet<>(changes.stream().map(EnrollmentChange::studentId).toList()));
+
+        Set<String> existingCourses = new HashSet<>();
+        for (List<String> chunk : Utils.chunks(courses, Utils.IN_CLAUSE_CHUNK)) {
+            existingCourses.addAll(courseRepository.findExistingCourseIds(chunk));
+        }
+
+        Set<String> existingStudents = new HashSet<>();
+        for (List<String> chunk : Utils.chunks(students, Utils.IN_CLAUSE_CHUNK)) {
+            existingStudents.addAll(studentRepository.findExistingUserIds(chunk));
+        }
+
+        Map<String, Integer> seatsLeft = new HashMap<>();
+        for (String courseId : new TreeSet<>(existingCourses)) {
+            seatsLeft.put(courseId, seatReservations.lockSeatsLeft(courseId));
+        }
+        Set<String> waitedOn = waitlistService.coursesWithWaiting(new ArrayList<>(existingCourses));
+
+        EnrollmentReplay replay = new EnrollmentReplay(existingStudents, existingCourses, seatsLeft, waitedOn);
+
+        Map<String, List<String>> studentsByCourse = new HashMap<>();
+        for (EnrollmentChange change : changes) {
+            if (existingCourses.contains(change.courseId()) && existingStudents.contains(change.studentId())) {
+                studentsByCourse.computeIfAbsent(change.courseId(), k -> new ArrayList<>()).add(change.studentId());
+            }
+        }
+        studentsByCourse.forEach((courseId, studentIds) -> {
+            for (String studentId : enrollmentRepository.findEnrolledStudentIds(courseId, studentIds)) {
+                replay.enrolled(studentId, courseId);
+            }
+        });
+
+        List<EnrollmentResult> results = replay.apply(changes);
+        List<String[]> inserts = replay.inserts();
+        List<String[]> deletes = replay.deletes();
+
+        if (!deletes.isEmpty()) enrollmentRepository.deleteAll(deletes);
+        boolean[] inserted = enrollmentRepository.insertAll(inserts, enrollmentBatchSize);
+
+        List<String[]> written = new ArrayList<>();
+        for (int i = 0; i < inserts.size(); i++) {
+            String[] pair = inserts.get(i);
+            if (inserted[i]) {
+                written.add(pair);
+            } else {
+                notInserted(results, pair);
+            }
         }
 
-        //if all cases passes enroll student to the course
+        Set<String> changedStudents = new HashSet<>();
+        Set<String> changedCourses = new HashSet<>();
+        Set<String> freedCourses = new HashSet<>();
+        for (String[] pair : written) {
+            changedStudents.add(pair[0]);
+            changedCourses.add(pair[1]);
+        }
+        for (String[] pair : deletes) {
+            changedStudents.add(pair[0]);
+            changedCourses.add(pair[1]);
+            freedCourses.add(pair[1]);
+        }
+        changedCourses.forEach(seatReservations::recount);
+        freedCourses.forEach(waitlistService::seatFreed);
+        aggregateVersions.bumpProfiles(changedStudents);
+        statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, written.size() - deletes.size());
 
-        student.getCourses().add(course);
-        studentRepository.save(student);
+        return results;
+    }
 
-        return course;
+    // An insert is the net effect of the pair's changes, so the last ENROLLED among them is the one that did not happen
+    private void notInserted(List<EnrollmentResult> results, String[] pair) {
+        for (int i = results.size() - 1; i >= 0; i--) {
+            EnrollmentResult result = results.get(i);
+            if (result.status() == EnrollmentResult.Status.ENROLLED
+                    && result.studentId().equals(pair[0]) && result.courseId().equals(pair[1])) {
+                results.set(i, EnrollmentResult.of(notInserted(pair[0], pair[1]), pair[0], pair[1]));
+                return;
+            }
+        }
     }
 
+    // Enrolls every student into every course: one set query per table to validate the IDs,
+    // one per course to find existing enrollments, then batched inserts into the join table.
+    // Each course row is locked while its seats are handed out, students past capacity get COURSE_FULL,
+    // as do all students for a course with a waitlist, whose free seats go to the line first.
+    @Transactional
+    public BulkEnrollmentResult bulkEnroll(List<String> courseIds, List<String> studentIds) {
+
+        long startedAt = System.nanoTime();
 
-    public Course dropStudentFromCourse(String studentId, String courseId) {
-        Student student = studentRepository.findById(studentId).orElse(null);
-        Course course = courseRepository.findById(courseId).orElse(null);
+        List<String> courses = new ArrayList<>(new LinkedHashSet<>(courseIds != null ? courseIds : List.of()));
+        List<String> students = new ArrayList<>(new LinkedHashSet<>(studentIds != null ? studentIds : List.of()));
 
-        if (student == null) {
-            System.out.println("Student not found");
-            return null;
+        Set<String> existingCourses = new HashSet<>();
+        for (List<String> chunk : Utils.chunks(courses, Utils.IN_CLAUSE_CHUNK)) {
+            existingCourses.addAll(courseRepository.findExistingCourseIds(chunk));
         }
-        if (course == null) {
-            System.out.println("Course not found");
-            return null;
+
+        Set<String> existingStudents = new HashSet<>();
+        for (List<String> chunk : Utils.chunks(students, Utils.IN_CLAUSE_CHUNK)) {
+            existingStudents.addAll(studentRepository.findExistingUserIds(chunk));
         }
+        List<String> validStudents = students.stream().filter(existingStudents::contains).toList();
 
-        // Check if enrolled
-        if (!student.getCourses().contains(course)) {
-            System.out.println("Student not enrolled");
-            return null;
+        // sorted, so concurrent bulk enrollments lock courses in the same order
+        Map<String, Integer> seatsLeft = new HashMap<>();
+        for (String courseId : new TreeSet<>(existingCourses)) {
+            seatsLeft.put(courseId, seatReservations.lockSeatsLeft(courseId));
         }
+        Set<String> waitedOn = waitlistService.coursesWithWaiting(new ArrayList<>(existingCourses));
+
+        List<EnrollmentResult> results = new ArrayList<>(courses.size() * students.size());
+        List<String[]> newEnrollments = new ArrayList<>();
+        List<Integer> newEnrollmentResults = new ArrayList<>();
+
+        for (String courseId : courses) {
 
-        // Remove course from student's course list
-        student.getCourses().remove(course);
-        studentRepository.save(student);
+            boolean courseExists = existingCourses.contains(courseId);
+            Set<String> alreadyEnrolled = courseExists
+                    ? enrollmentRepository.findEnrolledStudentIds(courseId, validStudents)
+                    : Set.of();
 
-        System.out.println("Student successfully dropped");
-        return course;
+            for (String studentId : students) {
+                EnrollmentResult.Status status;
+                if (!courseExists) {
+                    status = EnrollmentResult.Status.COURSE_NOT_FOUND;
+                } else if (!existingStudents.contains(studentId)) {
+                    status = EnrollmentResult.Status.STUDENT_NOT_FOUND;
+                } else if (alreadyEnrolled.contains(studentId)) {
+                    status = EnrollmentResult.Status.ALREADY_ENROLLED;
+                } else if (waitedOn.contains(courseId) || seatsLeft.get(courseId) <= 0) {
+                    status = EnrollmentResult.Status.COURSE_FULL;
+                } else {
+                    seatsLeft.merge(courseId, -1, Integer::sum);
+                    status = EnrollmentResult.Status.ENROLLED;
+                    newEnrollments.add(new String[]{studentId, courseId});
+                    newEnrollmentResults.add(results.size());
+                }
+                results.add(EnrollmentResult.of(status, studentId, courseId));
+            }
+
+        }
+
+        boolean[] inserted = enrollmentRepository.insertAll(newEnrollments, enrollmentBatchSize);
+
+        List<String[]> written = new ArrayList<>();
+        for (int i = 0; i < newEnrollments.size(); i++) {
+            String[] pair = newEnrollments.get(i);
+            if (inserted[i]) {
+                written.add(pair);
+            } else {
+                results.set(newEnrollmentResults.get(i), EnrollmentResult.of(notInserted(pair[0], pair[1]), pair[0], pair[1]));
+            }
+        }
+
+        Set<String> enrolledCourses = new HashSet<>();
+        for (String[] pair : written) enrolledCourses.add(pair[1]);
+        enrolledCourses.forEach(seatReservations::recount);
+
+        Set<String> enrolledStudents = new HashSet<>();
+        for (String[] pair : written) enrolledStudents.add(pair[0]);
+        aggregateVersions.bumpProfiles(enrolledStudents);
+        statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, written.size());
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return new BulkEnrollmentResult(written.size(), results.size() - written.size(), elapsedMillis, results);
+    }
+
+    // Why INSERT IGNORE skipped a pair that was checked before the insert: its student or course was
+    // deleted meanwhile, otherwise it is already enrolled
+    private EnrollmentResult.Status notInserted(String studentId, String courseId) {
+        if (!studentRepository.existsById(studentId)) return EnrollmentResult.Status.STUDENT_NOT_FOUND;
+        if (!courseRepository.existsById(courseId)) return EnrollmentResult.Status.COURSE_NOT_FOUND;
+        return EnrollmentResult.Status.ALREADY_ENROLLED;
+    }
+
+    // Enrollment feed: one joined keyset query per page, the cursor carries the last (student, course) pair
+    public CursorPage<EnrollmentRow> getEnrollmentsPage(String courseId, String departmentId, String studentId,
+                                                        String cursor, Integer size) {
+
+        int pageSize = CursorPage.clampSize(size);
+
+        String afterStudentId = null;
+        String afterCourseId = null;
+        String key = CursorPage.decode(cursor);
+        if (key != null) {
+            int separator = key.indexOf(ENROLLMENT_KEY_SEPARATOR);
+            if (separator < 0) throw new InvalidCursorException(cursor);
+            afterStudentId = key.substring(0, separator);
+            afterCourseId = key.substring(separator + 1);
+        }
+
+        List<EnrollmentRow> rows = enrollmentRepository.findPage(courseId, departmentId, studentId,
+                afterStudentId, afterCourseId, CursorPage.fetchSize(pageSize));
+        return CursorPage.of(rows, pageSize, row -> row.studentId() + ENROLLMENT_KEY_SEPARATOR + row.courseId());
+    }
+
+    private static String[] splitEnrollmentKey(String key) {
+        int separator = key.indexOf(ENROLLMENT_KEY_SEPARATOR);
+        return new String[]{key.substring(0, separator), key.substring(separator + 1)};
     }
 
    // get all courses a student is enrolled to
     public List<Course> getStudentCourses(String studentId) {
-        Student student = studentRepository.findById(studentId).orElse(null);
-        if (student != null) {
-            return student.getCourses();
+        if (studentRepository.existsById(studentId)) {
+            return courseRepository.findByEnrolledStudentId(studentId);
         }
         return null;
     }
 
     // get all students enrolled for a course
     public List<Student> getCourseStudents(String courseId) {
-        Course course = courseRepository.findById(courseId).orElse(null);
-        if (course != null) {
-            return course.getStudents();
+        if (courseRepository.existsById(courseId)) {
+            return studentRepository.findByEnrolledCourseId(courseId);
         }
         return null;
     }
@@ -4,7 +4,7 @@ import com.example.lmsproject.entity.Department;
 import com.example.lmsproject.entity.Student;
 import com.example.lmsproject.repository.DepartmentRepository;
 import com.example.lmsproject.repository.StudentRepository;
-import com.example.lmsproject.utils.Utils;
+import com.example.lmsproject.utils.IdPrefix;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -16,18 +16,28 @@ public class DepartmentService {
     private DepartmentRepository departmentRepository;
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private IdSequenceService idSequenceService;
+    @Autowired
+    private AggregateVersions aggregateVersions;
+    @Autowired
+    private StatsRegistry statsRegistry;
+    @Autowired
+    private CatalogReadModel catalogReadModel;
+    @Autowired
+    private StudentDirectory studentDirectory;
+    @Autowired
+    private SeatReservations seatReservations;
 
     public Department saveDetails(Department department) {
 
-        String lastDepartmenId = departmentRepository.getLastdepartmentId();
-        if(lastDepartmenId != null){
-            department.setDepartmentId(Utils.nextId(lastDepartmenId));
-        }
-        else {
-            department.setDepartmentId("DEP-00001");
-        }
+        department.setDepartmentId(idSequenceService.nextId(IdPrefix.DEPARTMENT));
 
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        catalogReadModel.refreshAfterCommit();
+        aggregateVersions.bump(AggregateVersions.DEPARTMENTS);
+        statsRegistry.add(StatsRegistry.Counter.DEPARTMENTS, 1);
+        return saved;
     }
 
     public Department getDepartmentById(String id) {
@@ -40,9 +50,8 @@ public class DepartmentService {
 
     //one to many
     public List<Student> getDepartmentStudents(String id) {
-        Department department = getDepartmentById(id);
-        if (department != null) {
-            return department.getStudents();
+        if (departmentRepository.existsById(id)) {
+            return studentRepository.findByDepartmentDepartmentId(id);
         }
         return null;
     }
@@ -55,9 +64,18 @@ public class DepartmentService {
                 student.setDepartment(null);
                 studentRepository.save(student);
             }
+            // the delete may cascade to these students, drop them and let lookups go to the database;
+            // the profile bump does the same for the directories of other nodes
+            studentDirectory.removeAll(department.getStudents());
+            aggregateVersions.bumpProfiles(department.getStudents().stream().map(Student::getUserId).toList());
 
             // Then delete the department
             departmentRepository.delete(department);
+            catalogReadModel.refreshAfterCommit();
+            aggregateVersions.bump(AggregateVersions.DEPARTMENTS);
+            // the delete cascades into the department's collections, so count rather than guess
+            statsRegistry.recountAfterCommit();
+            seatReservations.recountAll();
             return true;
         }
         return false;
@@ -68,7 +86,10 @@ public class DepartmentService {
         if (department != null) {
             department.setName(departmentDetails.getName());
             department.setDescription(departmentDetails.getDescription());
-            return departmentRepository.save(department);
+            Department saved = departmentRepository.save(department);
+            catalogReadModel.refreshAfterCommit();
+            aggregateVersions.bump(AggregateVersions.DEPARTMENTS);
+            return saved;
         }
         return null;
     }
@@ -0,0 +1,248 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.EnrollmentChange;
+import com.example.lmsproject.entity.EnrollmentResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for single enroll/drop requests, for registration peaks. With
+ * lms.enrollment.group-commit.enabled the request thread queues its change and waits; one
+ * writer thread drains the queue in batches (up to max-batch-size changes, waiting at most
+ * linger-ms for a batch to fill) and applies each batch in one transaction through
+ * CourseService.applyEnrollmentChanges, so the database sees a few large transactions on one
+ * connection instead of one small transaction per request.
+ *
+ * A full queue answers 503 with Retry-After. A caller that times out cancels its change and answers
+ * 503 only if the writer has not taken it yet; once taken, the change may commit, so the caller waits
+ * up to timeout-seconds more and then answers 504 without Retry-After rather than inviting a retry.
+ * If a batch fails as a whole, its changes are retried one by one through the per-request path so a
+ * single bad change cannot fail the others; anything else that goes wrong while applying a batch fails
+ * that batch's callers and the writer carries on with the next one.
+ *
+ * Disabled, enroll and drop go straight to CourseService as before.
+ */
+@Component
+public class EnrollmentBatcher {
+
+    private record Queued(EnrollmentChange change, CompletableFuture<EnrollmentResult> result, long queuedAt,
+                          AtomicInteger state) {
+
+        static final int WAITING = 0;
+        static final int TAKEN = 1;
+        static final int CANCELLED = 2;
+
+        Queued(EnrollmentChange change) {
+            this(change, new CompletableFuture<>(), System.nanoTime(), new AtomicInteger(WAITING));
+        }
+
+        boolean take() {
+            return state.compareAndSet(WAITING, TAKEN);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+    }
+
+    @Autowired
+    private CourseService courseService;
+
+    @Value("${lms.enrollment.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${lms.enrollment.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${lms.enrollment.group-commit.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${lms.enrollment.group-commit.linger-ms:2}")
+    private long lingerMillis;
+
+    @Value("${lms.enrollment.group-commit.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${lms.enrollment.group-commit.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private BlockingQueue<Queued> queue;
+
+    private Thread writer;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator largestBatch = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writer = new Thread(this::run, "enrollment-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (writer != null) writer.interrupt();
+    }
+
+    public EnrollmentResult enroll(String studentId, String courseId) {
+        if (!enabled) return courseService.enrollStudentInCourse(studentId, courseId);
+        return submit(new EnrollmentChange(EnrollmentChange.Action.ENROLL, studentId, courseId));
+    }
+
+    public EnrollmentResult drop(String studentId, String courseId) {
+        if (!enabled) return courseService.dropStudentFromCourse(studentId, courseId);
+        return submit(new EnrollmentChange(EnrollmentChange.Action.DROP, studentId, courseId));
+    }
+
+    public Map<String, Object> stats() {
+        long count = applied.sum();
+        long batchCount = batches.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue != null ? queue.size() : 0);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("batches", batchCount);
+        stats.put("applied", count);
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : count / batchCount);
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("avgQueueWaitMicros", count == 0 ? 0 : waitNanos.sum() / count / 1000);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        return stats;
+    }
+
+    private EnrollmentResult submit(EnrollmentChange change) {
+
+        Queued queued = new Queued(change);
+        if (!queue.offer(queued)) {
+            rejected.increment();
+            throw new EnrollmentBusyException(retryAfterSeconds);
+        }
+
+        try {
+            try {
+                return queued.result().get(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                if (queued.cancel()) throw new EnrollmentBusyException(retryAfterSeconds);
+                // the writer has it, the outcome is on its way
+                try {
+                    return queued.result().get(timeoutSeconds, TimeUnit.SECONDS);
+                } catch (TimeoutException stillRunning) {
+                    throw new EnrollmentPendingException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for enrollment", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Enrollment failed", e.getCause());
+        }
+
+    }
+
+    private void run() {
+
+        List<Queued> batch = new ArrayList<>(maxBatchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+
+        try {
+            while (true) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) continue;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Queued next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                try {
+                    apply(batch);
+                } catch (Throwable e) {
+                    // a future already completed keeps its result
+                    for (Queued queued : batch) queued.result().completeExceptionally(e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // shutting down: fail whatever was taken or is still queued rather than leave callers waiting
+            IllegalStateException stopped = new IllegalStateException("Enrollment writer stopped");
+            queue.drainTo(batch);
+            for (Queued queued : batch) {
+                queued.cancel();
+                queued.result().completeExceptionally(stopped);
+            }
+        }
+
+    }
+
+    private void apply(List<Queued> batch) {
+
+        batch.removeIf(queued -> !queued.take());
+        if (batch.isEmpty()) return;
+
+        long startedAt = System.nanoTime();
+        for (Queued queued : batch) waitNanos.add(startedAt - queued.queuedAt());
+        batches.increment();
+        applied.add(batch.size());
+        largestBatch.accumulate(batch.size());
+
+        List<EnrollmentResult> results;
+        try {
+            results = courseService.applyEnrollmentChanges(batch.stream().map(Queued::change).toList());
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            for (Queued queued : batch) applyAlone(queued);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(results.get(i));
+        }
+
+    }
+
+    private void applyAlone(Queued queued) {
+        EnrollmentChange change = queued.change();
+        try {
+            queued.result().complete(change.action() == EnrollmentChange.Action.ENROLL
+                    ? courseService.enrollStudentInCourse(change.studentId(), change.courseId())
+                    : courseService.dropStudentFromCourse(change.studentId(), change.courseId()));
+        } catch (RuntimeException e) {
+            queued.result().completeExceptionally(e);
+        }
+    }
+
+}
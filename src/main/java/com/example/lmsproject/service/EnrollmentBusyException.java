@@ -0,0 +1,16 @@
+package com.example.lmsproject.service;
+
+public class EnrollmentBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public EnrollmentBusyException(long retryAfterSeconds) {
+        super("Enrollment queue is full");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
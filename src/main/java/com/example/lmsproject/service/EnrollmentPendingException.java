@@ -0,0 +1,10 @@
+package com.example.lmsproject.service;
+
+// The writer took the change but had no result within the wait; it may still commit, so this is not a retry signal
+public class EnrollmentPendingException extends RuntimeException {
+
+    public EnrollmentPendingException() {
+        super("Enrollment is still being applied, check the enrollment before retrying");
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.EnrollmentChange;
+import com.example.lmsproject.entity.EnrollmentResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The in-memory half of CourseService.applyEnrollmentChanges: plays a batch of enroll/drop changes in
+// queue order against the state read up front and works out the net rows to insert and delete.
+// Each change gets the result it would have had on its own.
+final class EnrollmentReplay {
+
+    private record Pair(String studentId, String courseId) {}
+
+    private final Set<String> existingStudents;
+    private final Set<String> existingCourses;
+    // Integer.MAX_VALUE for a course without a capacity, may be negative when it is over capacity
+    private final Map<String, Integer> seatsLeft;
+    // Courses with a waitlist: they take no direct enrollments and their freed seats go to the line
+    private final Set<String> waitedOn;
+
+    private final Set<Pair> initiallyEnrolled = new HashSet<>();
+    private final Set<Pair> enrolled = new HashSet<>();
+
+    EnrollmentReplay(Set<String> existingStudents, Set<String> existingCourses,
+                     Map<String, Integer> seatsLeft, Set<String> waitedOn) {
+        this.existingStudents = existingStudents;
+        this.existingCourses = existingCourses;
+        this.seatsLeft = new HashMap<>(seatsLeft);
+        this.waitedOn = waitedOn;
+    }
+
+    // Enrollments that existed before the batch
+    void enrolled(String studentId, String courseId) {
+        Pair pair = new Pair(studentId, courseId);
+        initiallyEnrolled.add(pair);
+        enrolled.add(pair);
+    }
+
+    List<EnrollmentResult> apply(List<EnrollmentChange> changes) {
+
+        List<EnrollmentResult> results = new ArrayList<>(changes.size());
+
+        for (EnrollmentChange change : changes) {
+            String studentId = change.studentId();
+            String courseId = change.courseId();
+            Pair pair = new Pair(studentId, courseId);
+
+            EnrollmentResult.Status status;
+            if (!existingStudents.contains(studentId)) {
+                status = EnrollmentResult.Status.STUDENT_NOT_FOUND;
+            } else if (!existingCourses.contains(courseId)) {
+                status = EnrollmentResult.Status.COURSE_NOT_FOUND;
+            } else if (change.action() == EnrollmentChange.Action.ENROLL) {
+                if (enrolled.contains(pair)) {
+                    status = EnrollmentResult.Status.ALREADY_ENROLLED;
+                } else if (waitedOn.contains(courseId) || seatsLeft.get(courseId) <= 0) {
+                    status = EnrollmentResult.Status.COURSE_FULL;
+                } else {
+                    enrolled.add(pair);
+                    seatsLeft.merge(courseId, -1, Integer::sum);
+                    status = EnrollmentResult.Status.ENROLLED;
+                }
+            } else if (enrolled.remove(pair)) {
+                // a freed seat goes to the waitlist, if there is one
+                if (!waitedOn.contains(courseId) && seatsLeft.get(courseId) != Integer.MAX_VALUE) {
+                    seatsLeft.merge(courseId, 1, Integer::sum);
+                }
+                status = EnrollmentResult.Status.DROPPED;
+            } else {
+                status = EnrollmentResult.Status.NOT_ENROLLED;
+            }
+            results.add(EnrollmentResult.of(status, studentId, courseId));
+        }
+
+        return results;
+
+    }
+
+    // {studentId, courseId} pairs enrolled after the batch but not before
+    List<String[]> inserts() {
+        return difference(enrolled, initiallyEnrolled);
+    }
+
+    // {studentId, courseId} pairs enrolled before the batch but not after
+    List<String[]> deletes() {
+        return difference(initiallyEnrolled, enrolled);
+    }
+
+    private static List<String[]> difference(Set<Pair> from, Set<Pair> minus) {
+        List<String[]> pairs = new ArrayList<>();
+        for (Pair pair : from) {
+            if (!minus.contains(pair)) pairs.add(new String[]{pair.studentId(), pair.courseId()});
+        }
+        return pairs;
+    }
+
+}
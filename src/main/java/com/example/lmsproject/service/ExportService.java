@@ -0,0 +1,156 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.repository.CourseRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.repository.LecturerRepo;
+import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.utils.RowWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class ExportService {
+
+    public enum Format {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) return format;
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+
+    }
+
+    private static final List<String> STUDENT_COLUMNS = List.of("userId", "studentId", "username", "firstName",
+            "lastName", "email", "phone", "dateOfBirth", "gender", "departmentId");
+
+    private static final List<String> LECTURER_COLUMNS = List.of("userId", "lecturerID", "username", "firstName",
+            "lastName", "email", "phone", "departmentId", "isLIC");
+
+    private static final List<String> COURSE_COLUMNS = List.of("courseId", "courseName", "departmentId");
+
+    private static final List<String> ENROLLMENT_COLUMNS = List.of("studentId", "courseId");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LecturerRepo lecturerRepo;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    // Each export reads a forward-only cursor and detaches every row once written,
+    // so the persistence context never grows with the size of the table.
+
+    @Transactional(readOnly = true)
+    public void exportStudents(Format format, OutputStream out) throws IOException {
+
+        try (RowWriter writer = open(format, out, STUDENT_COLUMNS);
+             Stream<Student> students = studentRepository.streamAll()) {
+            students.forEach(student -> {
+                write(writer, student.getUserId(), student.getStudentId(), student.getUsername(),
+                        student.getFirstName(), student.getLastName(), student.getEmail(), student.getPhone(),
+                        student.getDateOfBirth(), student.getGender(), departmentId(student.getDepartment()));
+                entityManager.detach(student);
+            });
+        }
+
+    }
+
+    @Transactional(readOnly = true)
+    public void exportLecturers(Format format, OutputStream out) throws IOException {
+
+        try (RowWriter writer = open(format, out, LECTURER_COLUMNS);
+             Stream<Lecturer> lecturers = lecturerRepo.streamAll()) {
+            lecturers.forEach(lecturer -> {
+                write(writer, lecturer.getUserId(), lecturer.getLecturerID(), lecturer.getUsername(),
+                        lecturer.getFirstName(), lecturer.getLastName(), lecturer.getEmail(), lecturer.getPhone(),
+                        departmentId(lecturer.getDepartment()), lecturer.isLIC());
+                entityManager.detach(lecturer);
+            });
+        }
+
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCourses(Format format, OutputStream out) throws IOException {
+
+        try (RowWriter writer = open(format, out, COURSE_COLUMNS);
+             Stream<Course> courses = courseRepository.streamAll()) {
+            courses.forEach(course -> {
+                write(writer, course.getCourseId(), course.getCourseName(), departmentId(course.getDepartment()));
+                entityManager.detach(course);
+            });
+        }
+
+    }
+
+    @Transactional(readOnly = true)
+    public void exportEnrollments(Format format, OutputStream out) throws IOException {
+
+        try (RowWriter writer = open(format, out, ENROLLMENT_COLUMNS)) {
+            enrollmentRepository.streamAll(rs -> write(writer, rs.getString(1), rs.getString(2)));
+        }
+
+    }
+
+    private RowWriter open(Format format, OutputStream out, List<String> columns) throws IOException {
+        return format == Format.CSV ? RowWriter.csv(out, columns) : RowWriter.ndjson(out, jsonFactory, columns);
+    }
+
+    private static void write(RowWriter writer, Object... values) {
+        try {
+            writer.write(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String departmentId(Department department) {
+        return department != null ? department.getDepartmentId() : null;
+    }
+
+}
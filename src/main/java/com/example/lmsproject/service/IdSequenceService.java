@@ -0,0 +1,103 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.IdSequence;
+import com.example.lmsproject.repository.IdSequenceRepository;
+import com.example.lmsproject.utils.IdBlockAllocator;
+import com.example.lmsproject.utils.IdPrefix;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class IdSequenceService {
+
+    private static final int MAX_SEED_ATTEMPTS = 3;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${lms.id.block-size:50}")
+    private int blockSize;
+
+    private TransactionTemplate blockTransaction;
+
+    private final Map<IdPrefix, IdBlockAllocator> allocators = new EnumMap<>(IdPrefix.class);
+
+    @PostConstruct
+    void init() {
+        // Blocks are committed on their own so a rolled back create never hands the same range out twice
+        blockTransaction = new TransactionTemplate(transactionManager);
+        blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (IdPrefix prefix : IdPrefix.values()) {
+            allocators.put(prefix, new IdBlockAllocator(size -> reserveBlock(prefix, size), blockSize));
+        }
+    }
+
+    public String nextId(IdPrefix prefix) {
+        return prefix.format(allocators.get(prefix).next());
+    }
+
+    // Batches get one contiguous range of their own, a single round trip however many IDs are needed
+    public List<String> nextIds(IdPrefix prefix, int count) {
+        List<String> ids = new ArrayList<>(Math.max(count, 0));
+        if (count <= 0) return ids;
+
+        long first = reserveBlock(prefix, count);
+        for (long value = first; value < first + count; value++) {
+            ids.add(prefix.format(value));
+        }
+        return ids;
+    }
+
+    private long reserveBlock(IdPrefix prefix, int size) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long first = blockTransaction.execute(status -> {
+                    IdSequence sequence = idSequenceRepository.findForUpdate(prefix.name());
+
+                    if (sequence == null) {
+                        long start = IdPrefix.parse(findMaxExistingId(prefix)) + 1;
+                        idSequenceRepository.saveAndFlush(new IdSequence(prefix.name(), start + size));
+                        return start;
+                    }
+
+                    long start = sequence.getNextValue();
+                    sequence.setNextValue(start + size);
+                    return start;
+                });
+                return first;
+            } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+                // Another node seeded the row first, its row lock is what we want now. On MySQL both
+                // seeders hold a gap lock from the FOR UPDATE on the missing row, so one INSERT ends in a
+                // deadlock rather than a duplicate key, and the loser retries the same way.
+                if (attempt >= MAX_SEED_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private String findMaxExistingId(IdPrefix prefix) {
+        return switch (prefix) {
+            case USER -> idSequenceRepository.findMaxUserId();
+            case STUDENT -> idSequenceRepository.findMaxStudentId();
+            case LECTURER -> idSequenceRepository.findMaxLecturerId();
+            case COURSE -> idSequenceRepository.findMaxCourseId();
+            case DEPARTMENT -> idSequenceRepository.findMaxDepartmentId();
+        };
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.lmsproject.service;
+
+public class InvalidCapacityException extends RuntimeException {
+
+    public InvalidCapacityException(Integer capacity) {
+        super("Invalid capacity: " + capacity + ", it must be 0 or more, or left out for no limit");
+    }
+
+}
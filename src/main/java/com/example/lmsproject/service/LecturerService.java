@@ -1,22 +1,27 @@
 package com.example.lmsproject.service;
 
-import com.example.lmsproject.auth.PWEncoder;
+import com.example.lmsproject.auth.PasswordHashingService;
+import com.example.lmsproject.auth.UserDetailsCache;
 import com.example.lmsproject.entity.Course;
 import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.LecturerProfileView;
 import com.example.lmsproject.repository.CourseRepository;
 import com.example.lmsproject.repository.LecturerRepo;
-import com.example.lmsproject.utils.Utils;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.example.lmsproject.utils.CursorPage;
+import com.example.lmsproject.utils.IdPrefix;
+import com.example.lmsproject.utils.JsonRows;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 @Service
-public class LecturerService implements UserService<Lecturer> {
+public class LecturerService implements UserService<Lecturer, LecturerProfileView> {
 
     @Autowired
     private LecturerRepo lecturerRepo;
@@ -24,50 +29,100 @@ public class LecturerService implements UserService<Lecturer> {
     @Autowired
     private CourseRepository courseRepository;
 
-    public Lecturer create(Lecturer lecturer){
+    @Autowired
+    private IdSequenceService idSequenceService;
 
-        String lastLecturerID = lecturerRepo.getLastLecturerID();
-        String lastUserID = lecturerRepo.getLastUserID();
+    @Autowired
+    private UserDetailsCache userDetailsCache;
 
-        if(lastUserID != null){
-            lecturer.setUserId(Utils.nextId(lastUserID));
-        } else {
-            lecturer.setUserId("USER-0000001");
-        }
+    @Autowired
+    private AggregateVersions aggregateVersions;
 
-        if(lastLecturerID != null){
-            lecturer.setLecturerID(Utils.nextId(lastLecturerID));
-        } else {
-            lecturer.setLecturerID("LEC-00001");
-        }
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private BatchInserter batchInserter;
+
+    public Lecturer create(Lecturer lecturer){
+
+        lecturer.setUserId(idSequenceService.nextId(IdPrefix.USER));
+        lecturer.setLecturerID(idSequenceService.nextId(IdPrefix.LECTURER));
 
         lecturer.setRole("LECTURER");
         lecturer.setLIC(false);
-        lecturer.setPassword(PWEncoder.encode(lecturer.getPassword()));
+        lecturer.setPassword(passwordHashingService.encode(lecturer.getPassword()));
+
+        Lecturer saved = lecturerRepo.save(lecturer);
+        aggregateVersions.bumpProfile(saved.getUserId(), saved.getLecturerID());
+        statsRegistry.add(StatsRegistry.Counter.LECTURERS, 1);
+        return saved;
+    }
+
+    // Bulk create, same pipeline as StudentService.saveAllDetails: pre-allocated IDs, parallel
+    // hashing outside the transaction, then batched inserts flushed and cleared per chunk
+    public List<Lecturer> createAll(List<Lecturer> lecturers){
 
-        return lecturerRepo.save(lecturer);
+        if (lecturers.isEmpty()) return lecturers;
+
+        List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, lecturers.size());
+        List<String> lecturerIds = idSequenceService.nextIds(IdPrefix.LECTURER, lecturers.size());
+        List<String> hashes = passwordHashingService.encodeAll(lecturers.stream().map(Lecturer::getPassword).toList());
+
+        for (int i = 0; i < lecturers.size(); i++) {
+            Lecturer lecturer = lecturers.get(i);
+            lecturer.setUserId(userIds.get(i));
+            lecturer.setLecturerID(lecturerIds.get(i));
+            lecturer.setRole("LECTURER");
+            lecturer.setLIC(false);
+            lecturer.setPassword(hashes.get(i));
+        }
+
+        batchInserter.insertAll(lecturers, Lecturer::getDepartment, Lecturer::setDepartment);
+        aggregateVersions.bumpProfiles(userIds);
+        aggregateVersions.bumpProfiles(lecturerIds);
+        statsRegistry.add(StatsRegistry.Counter.LECTURERS, lecturers.size());
+
+        return lecturers;
     }
 
+    // The login version is bumped in the same transaction, so no node accepts the old credentials once it commits
+    @Transactional
     public Lecturer changePassword(String lecturerUserName, String password){
         Lecturer lecturer = lecturerRepo.findByUsername(lecturerUserName);
-        lecturer.setPassword(PWEncoder.encode(password));
-        return lecturerRepo.save(lecturer);
+        lecturer.setPassword(passwordHashingService.encode(password));
+        lecturer.setPasswordChangedAt(Instant.now());
+        Lecturer saved = lecturerRepo.save(lecturer);
+        userDetailsCache.evict(lecturerUserName);
+        return saved;
     }
 
     public Lecturer makeLecturerLIC(String lecturerID){
 
         Lecturer lecturer = lecturerRepo.findByLecturerID(lecturerID);
+        boolean wasLIC = lecturer.isLIC();
         lecturer.setLIC(true);
-        return lecturerRepo.save(lecturer);
+        Lecturer saved = lecturerRepo.save(lecturer);
+        aggregateVersions.bumpProfile(saved.getUserId(), saved.getLecturerID());
+        if (!wasLIC) statsRegistry.add(StatsRegistry.Counter.LICS, 1);
+        return saved;
 
     }
 
     public Lecturer makeLecturerNonLIC(String lecturerID){
         Lecturer lecturer = lecturerRepo.findByLecturerID(lecturerID);
+        boolean wasLIC = lecturer.isLIC();
         lecturer.setLIC(false);
-        return lecturerRepo.save(lecturer);
+        Lecturer saved = lecturerRepo.save(lecturer);
+        aggregateVersions.bumpProfile(saved.getUserId(), saved.getLecturerID());
+        if (wasLIC) statsRegistry.add(StatsRegistry.Counter.LICS, -1);
+        return saved;
     }
 
+    @Transactional
     public boolean delete(String lecturerID){
         Lecturer lecturer = lecturerRepo.findByLecturerID(lecturerID);
 
@@ -76,6 +131,10 @@ public class LecturerService implements UserService<Lecturer> {
         }
 
         lecturerRepo.delete(lecturer);
+        userDetailsCache.evict(lecturer.getUsername());
+        aggregateVersions.bumpProfile(lecturer.getUserId(), lecturer.getLecturerID());
+        statsRegistry.add(StatsRegistry.Counter.LECTURERS, -1);
+        if (lecturer.isLIC()) statsRegistry.add(StatsRegistry.Counter.LICS, -1);
         return true;
     }
 
@@ -90,40 +149,24 @@ public class LecturerService implements UserService<Lecturer> {
             lecturerToUpdate.setLastName(lecturer.getLastName());
             lecturerToUpdate.setDateOfBirth(lecturer.getDateOfBirth());
             lecturerToUpdate.setGender(lecturer.getGender());
-            return lecturerRepo.save(lecturerToUpdate);
+            Lecturer saved = lecturerRepo.save(lecturerToUpdate);
+            userDetailsCache.evict(saved.getUsername());
+            aggregateVersions.bumpProfile(saved.getUserId(), saved.getLecturerID());
+            return saved;
         }
 
-        return lecturerRepo.save(lecturer);
+        Lecturer saved = lecturerRepo.save(lecturer);
+        userDetailsCache.evict(lecturer.getUsername());
+        aggregateVersions.bumpProfile(saved.getUserId(), saved.getLecturerID());
+        return saved;
     }
 
-    public Map<String, String> get(String lecturerID){
-        Lecturer lecturer = lecturerRepo.findByLecturerID(lecturerID);
-
-        Map<String, String> lecturerMap = new HashMap<>();
-        lecturerMap.put("lecturerID", lecturer.getLecturerID());
-        lecturerMap.put("email", lecturer.getEmail());
-        lecturerMap.put("phone", lecturer.getPhone());
-        lecturerMap.put("isLIC", String.valueOf(lecturer.isLIC()));
-        lecturerMap.put("firstName", lecturer.getFirstName());
-        lecturerMap.put("lastName", lecturer.getLastName());
-        lecturerMap.put("courses", lecturer.getLecturingCourses() != null ? lecturer.getLecturingCourses().toString() : "No Courses");
-
-        return lecturerMap;
+    public LecturerProfileView get(String lecturerID){
+        return LecturerProfileView.from(lecturerRepo.findProfileByLecturerID(lecturerID));
     }
 
-    public Map<String, String> getByUsername(String lecturerID){
-        Lecturer lecturer = lecturerRepo.findByUsername(lecturerID);
-
-        Map<String, String> lecturerMap = new HashMap<>();
-        lecturerMap.put("lecturerID", lecturer.getLecturerID());
-        lecturerMap.put("email", lecturer.getEmail());
-        lecturerMap.put("phone", lecturer.getPhone());
-        lecturerMap.put("isLIC", String.valueOf(lecturer.isLIC()));
-        lecturerMap.put("firstName", lecturer.getFirstName());
-        lecturerMap.put("lastName", lecturer.getLastName());
-        lecturerMap.put("courses", lecturer.getLecturingCourses() != null ? lecturer.getLecturingCourses().toString() : "No Courses");
-
-        return lecturerMap;
+    public LecturerProfileView getByUsername(String username){
+        return LecturerProfileView.from(lecturerRepo.findProfileByUsername(username));
     }
 
     public boolean addLecturerToCourse(Lecturer lecturer, String courseID){
@@ -144,32 +187,24 @@ public class LecturerService implements UserService<Lecturer> {
 
     }
 
-    public JSONArray getAllLecturers() {
-
-        List<Lecturer> allAdmins = lecturerRepo.findByRole("LECTURER");
-
-        JSONArray jsonArray = new JSONArray();
-
-        for(Lecturer lecturer : allAdmins){
+    public void writeAllLecturers(OutputStream out) throws IOException {
+        JsonRows.writeArray(out, lecturerRepo.findByRole("LECTURER").iterator(), JsonRows.LECTURER);
+    }
 
-            JSONObject lecturerJson = new JSONObject();
+    public void writeLecturersPage(String cursor, Integer size, OutputStream out) throws IOException {
 
-            lecturerJson.put("userId", lecturer.getLecturerID());
-            lecturerJson.put("username", lecturer.getUsername());
-            lecturerJson.put("firstName", lecturer.getFirstName());
-            lecturerJson.put("lastName", lecturer.getLastName());
-            lecturerJson.put("email", lecturer.getEmail());
-            lecturerJson.put("phone", lecturer.getPhone());
-            lecturerJson.put("role", lecturer.getRole());
-            lecturerJson.put("department", lecturer.getDepartment() != null ? lecturer.getDepartment().getName() : "No Department");
+        int pageSize = CursorPage.clampSize(size);
+        List<Lecturer> lecturers = lecturerRepo.findPageByRole("LECTURER", CursorPage.decode(cursor), CursorPage.fetchSize(pageSize));
+        CursorPage<Lecturer> page = CursorPage.of(lecturers, pageSize, Lecturer::getUserId);
 
-            jsonArray.put(lecturerJson);
+        try (JsonGenerator generator = JsonRows.open(out)) {
+            generator.writeStartObject();
+            generator.writeFieldName("items");
+            JsonRows.writeArray(generator, page.items().iterator(), JsonRows.LECTURER);
+            generator.writeStringField("nextCursor", page.nextCursor());
+            generator.writeEndObject();
         }
 
-        return jsonArray;
-
     }
 
-
-
 }
@@ -0,0 +1,120 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.LecturerProfileView;
+import com.example.lmsproject.entity.StudentDirectoryEntry;
+import com.example.lmsproject.entity.StudentProfileView;
+import com.example.lmsproject.utils.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Map;
+
+/**
+ * Server-rendered HTML of the public lecturer and student profile pages, cached per ID.
+ *
+ * Each entry remembers the profile ETag it was rendered under. Every write that changes a
+ * profile (LecturerService.update, the LIC toggles, StudentService.updateDetails, enrollments,
+ * course and department changes) already moves that ETag through AggregateVersions, so a hit
+ * whose ETag is still current is served as is, with no query and no template evaluation, and
+ * a stale one is rendered again. Pages for unknown IDs are rendered but not cached.
+ *
+ * The lecturer route is public, so its page is cached in two variants: with email, phone and
+ * courses for lecturers, and without them for everyone else.
+ */
+@Component
+public class ProfilePageCache {
+
+    public record Page(String html, boolean found) {}
+
+    // versionKey is the ID AggregateVersions tracks the profile under
+    private record Rendered(String versionKey, String etag, String html) {}
+
+    private static final String LECTURER = "lecturer:";
+    private static final String LECTURER_PUBLIC = "lecturer-public:";
+    private static final String STUDENT = "student:";
+
+    @Autowired
+    private LecturerService lecturerService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Value("${lms.profile-pages.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${lms.profile-pages.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    private BoundedCache<String, Rendered> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    // contact adds email, phone and the course list; only pass true for a viewer with ROLE_LECTURER
+    public Page lecturerPage(String lecturerID, boolean contact) {
+
+        String key = (contact ? LECTURER : LECTURER_PUBLIC) + lecturerID;
+        Page cached = current(key);
+        if (cached != null) return cached;
+
+        // the ETag is read before the profile, so a write racing with this render leaves the entry stale
+        String etag = aggregateVersions.profileEtag(lecturerID);
+        LecturerProfileView profile = lecturerService.get(lecturerID);
+        String html = render("lecturer-profile", profile, contact);
+        if (profile != null) cache.put(key, new Rendered(lecturerID, etag, html));
+
+        return new Page(html, profile != null);
+
+    }
+
+    public Page studentPage(String studentId) {
+
+        String key = STUDENT + studentId;
+        Page cached = current(key);
+        if (cached != null) return cached;
+
+        // student profiles are versioned by user ID, which the first lookup provides
+        StudentDirectoryEntry student = studentService.lookupByStudentId(studentId);
+        if (student == null) return new Page(render("student-profile", null, true), false);
+
+        String etag = aggregateVersions.profileEtag(student.userId());
+        student = studentService.lookupByStudentId(studentId);
+        StudentProfileView profile = student != null ? studentService.getPublicProfile(student) : null;
+        String html = render("student-profile", profile, true);
+        if (profile != null) cache.put(key, new Rendered(profile.userId(), etag, html));
+
+        return new Page(html, profile != null);
+
+    }
+
+    public Map<String, Long> stats() {
+        return cache.stats();
+    }
+
+    private Page current(String key) {
+        Rendered rendered = cache.get(key);
+        if (rendered == null || !rendered.etag().equals(aggregateVersions.profileEtag(rendered.versionKey()))) return null;
+        return new Page(rendered.html(), true);
+    }
+
+    private String render(String template, Object profile, boolean contact) {
+        Context context = new Context(LocaleContextHolder.getLocale());
+        context.setVariable("profile", profile);
+        context.setVariable("contact", contact);
+        return templateEngine.process(template, context);
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.ImportSummary;
+import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.User;
+import com.example.lmsproject.utils.Csv;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Imports rosters without holding the payload in memory: the body is parsed record by
+ * record (JSON array, NDJSON or CSV) and persisted in chunks as it is read, so memory
+ * use depends on the chunk size only.
+ */
+@Service
+public class RosterImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private LecturerService lecturerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${lms.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${lms.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ImportSummary importStudents(InputStream body, String contentType) {
+        return importRecords(body, contentType, new ImportRun<>(Student.class, studentService::saveAllDetails));
+    }
+
+    public ImportSummary importLecturers(InputStream body, String contentType) {
+        return importRecords(body, contentType, new ImportRun<>(Lecturer.class, lecturerService::createAll));
+    }
+
+    private <T extends User> ImportSummary importRecords(InputStream body, String contentType, ImportRun<T> run) {
+
+        try {
+            MediaType mediaType = contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_JSON;
+
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON))) {
+                readNdjson(body, run);
+            } else if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV))) {
+                readCsv(body, run);
+            } else {
+                readJsonArray(body, run);
+            }
+        } catch (IOException e) {
+            // The rest of the body is unreadable, keep what was imported so far
+            run.reject(-1, "Could not read request body: " + e.getMessage());
+        }
+
+        run.flush();
+        return run.summary();
+
+    }
+
+    private void readJsonArray(InputStream body, ImportRun<?> run) throws IOException {
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                run.reject(parser.currentTokenLocation().getLineNr(), "Expected a JSON array");
+                return;
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                long line = parser.currentTokenLocation().getLineNr();
+
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    run.invalid(line, "Expected a JSON object");
+                    continue;
+                }
+
+                run.accept(line, objectMapper.readTree(parser));
+            }
+
+        }
+
+    }
+
+    private void readNdjson(InputStream body, ImportRun<?> run) throws IOException {
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+
+            String text;
+            long line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+
+                try {
+                    run.accept(line, objectMapper.readTree(text));
+                } catch (JsonProcessingException e) {
+                    run.invalid(line, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+
+        }
+
+    }
+
+    // The header row names the fields (username,password,firstName,...); a departmentId column links the department
+    private void readCsv(InputStream body, ImportRun<?> run) throws IOException {
+
+        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+
+            List<String> header = Csv.readRecord(reader);
+            if (header == null) return;
+
+            long line = reader.getLineNumber() + 1;
+            List<String> fields;
+            while ((fields = Csv.readRecord(reader)) != null) {
+
+                if (fields.size() == 1 && fields.getFirst().isBlank()) {
+                    line = reader.getLineNumber() + 1;
+                    continue;
+                }
+
+                if (fields.size() != header.size()) {
+                    run.invalid(line, "Expected " + header.size() + " columns but found " + fields.size());
+                } else {
+                    ObjectNode node = objectMapper.createObjectNode();
+                    for (int i = 0; i < header.size(); i++) {
+                        String column = header.get(i).trim();
+                        String value = fields.get(i);
+                        if (value.isEmpty()) continue;
+
+                        if (column.equals("departmentId")) {
+                            node.putObject("department").put("departmentId", value);
+                        } else {
+                            node.put(column, value);
+                        }
+                    }
+                    run.accept(line, node);
+                }
+
+                line = reader.getLineNumber() + 1;
+            }
+
+        }
+
+    }
+
+    private class ImportRun<T extends User> {
+
+        private final Class<T> type;
+        private final Consumer<List<T>> persist;
+
+        private final List<T> chunk = new ArrayList<>();
+        private final List<Long> chunkLines = new ArrayList<>();
+        private final List<ImportSummary.LineError> errors = new ArrayList<>();
+
+        private long received;
+        private long created;
+        private long failed;
+
+        ImportRun(Class<T> type, Consumer<List<T>> persist) {
+            this.type = type;
+            this.persist = persist;
+        }
+
+        void accept(long line, JsonNode node) {
+
+            received++;
+
+            T record;
+            try {
+                record = objectMapper.treeToValue(node, type);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                reject(line, "Invalid record: " + e.getMessage());
+                return;
+            }
+
+            if (record.getUsername() == null || record.getUsername().isBlank()) {
+                reject(line, "username is required");
+                return;
+            }
+            if (record.getPassword() == null || record.getPassword().isEmpty()) {
+                reject(line, "password is required");
+                return;
+            }
+
+            chunk.add(record);
+            chunkLines.add(line);
+
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+
+        }
+
+        // A record that could not even be parsed
+        void invalid(long line, String message) {
+            received++;
+            reject(line, message);
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportSummary.LineError(line, message));
+            }
+        }
+
+        void flush() {
+
+            if (chunk.isEmpty()) return;
+
+            try {
+                persist.accept(chunk);
+                created += chunk.size();
+            } catch (RuntimeException e) {
+                // The chunk's transaction rolled back as a whole, report every line in it
+                for (Long line : chunkLines) {
+                    reject(line, "Could not save record: " + e.getMessage());
+                }
+            }
+
+            chunk.clear();
+            chunkLines.clear();
+
+        }
+
+        ImportSummary summary() {
+            return new ImportSummary(received, created, failed, errors);
+        }
+
+    }
+
+}
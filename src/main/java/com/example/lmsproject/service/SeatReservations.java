@@ -0,0 +1,102 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seats per course, counted in courses.seats_taken. A seat is taken with one conditional UPDATE
+ * (seats_taken < capacity) inside the enrolling transaction; the row lock it takes serializes
+ * enrollments into that course only, on every node, and is held until commit so a rolled back
+ * enrollment gives its seat back.
+ *
+ * When the UPDATE finds a course full, the course is marked full in memory for a short while
+ * and further attempts are rejected without touching the database. A drop or capacity change
+ * on this node clears the mark; other nodes see the freed seat once their mark expires.
+ */
+@Component
+public class SeatReservations {
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Value("${lms.enrollment.full-course-ttl-ms:2000}")
+    private long fullCourseTtlMillis;
+
+    // course ID -> System.nanoTime() until which it counts as full
+    private final ConcurrentHashMap<String, Long> fullUntil = new ConcurrentHashMap<>();
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder fastRejected = new LongAdder();
+
+    // Call inside the enrolling transaction
+    public boolean reserve(String courseId) {
+
+        Long until = fullUntil.get(courseId);
+        if (until != null) {
+            if (until - System.nanoTime() > 0) {
+                fastRejected.increment();
+                return false;
+            }
+            fullUntil.remove(courseId, until);
+        }
+
+        if (enrollmentRepository.takeSeat(courseId)) {
+            reserved.increment();
+            return true;
+        }
+
+        fullUntil.put(courseId, System.nanoTime() + fullCourseTtlMillis * 1_000_000L);
+        rejected.increment();
+        return false;
+
+    }
+
+    public void release(String courseId) {
+        enrollmentRepository.releaseSeat(courseId);
+        AfterCommit.run(() -> fullUntil.remove(courseId));
+    }
+
+    // For the bulk path: locks the course row for the rest of the transaction and returns the seats left.
+    // Lock courses in a fixed order (sorted IDs) so two bulk enrollments cannot deadlock.
+    public int lockSeatsLeft(String courseId) {
+        return enrollmentRepository.lockSeatsLeft(courseId);
+    }
+
+    // After writes that add or remove enrollments without taking or releasing seats one by one
+    public void recount(String courseId) {
+        enrollmentRepository.recountSeats(courseId);
+        AfterCommit.run(() -> fullUntil.remove(courseId));
+    }
+
+    public void capacityChanged(String courseId) {
+        AfterCommit.run(() -> fullUntil.remove(courseId));
+    }
+
+    // Brings seats_taken in line with the join table, for existing data and cascading deletes
+    @EventListener(ApplicationReadyEvent.class)
+    public void recountAll() {
+        enrollmentRepository.recountAllSeats();
+        fullUntil.clear();
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("reserved", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("fastRejected", fastRejected.sum());
+        stats.put("coursesMarkedFull", (long) fullUntil.size());
+        return stats;
+    }
+
+}
@@ -1,8 +1,7 @@
 package com.example.lmsproject.service;
 
-import java.util.Map;
-
-public interface ServiceInterface<T> {
+// V is the read-only view returned by get
+public interface ServiceInterface<T, V> {
 
     public T create(T t);
 
@@ -10,6 +9,6 @@ public interface ServiceInterface<T> {
 
     public T update(T t, String id);
 
-    public Map<String, String> get(String userName);
+    public V get(String userName);
 
 }
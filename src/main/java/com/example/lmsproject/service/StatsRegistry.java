@@ -0,0 +1,201 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.DashboardStats;
+import com.example.lmsproject.repository.AdminRepo;
+import com.example.lmsproject.repository.CourseRepository;
+import com.example.lmsproject.repository.DepartmentRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.repository.LecturerRepo;
+import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.utils.AfterCommit;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Dashboard totals kept in memory. Seeded from COUNT queries once the application is ready,
+ * moved by the service write paths after their transactions commit, and re-checked against
+ * the database on a schedule so drift (writes on other nodes, cascades, bulk SQL) is corrected.
+ */
+@Component
+public class StatsRegistry {
+
+    public enum Counter { ADMINS, LECTURERS, LICS, STUDENTS, COURSES, DEPARTMENTS, ENROLLMENTS }
+
+    private final Map<Counter, AtomicLong> counters = new EnumMap<>(Counter.class);
+
+    private final ConcurrentHashMap<String, AtomicLong> studentsPerDepartment = new ConcurrentHashMap<>();
+
+    private final AtomicLong corrections = new AtomicLong();
+
+    private volatile Instant reconciledAt;
+
+    // Rounds run one at a time; a lock rather than a monitor since they wait on the database
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    @Autowired
+    private AdminRepo adminRepo;
+
+    @Autowired
+    private LecturerRepo lecturerRepo;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    public StatsRegistry() {
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new AtomicLong());
+        }
+    }
+
+    public void add(Counter counter, long delta) {
+        if (delta != 0) AfterCommit.run(() -> counters.get(counter).addAndGet(delta));
+    }
+
+    public void addStudents(String departmentId, long delta) {
+        add(Counter.STUDENTS, delta);
+        moveStudents(null, departmentId, delta);
+    }
+
+    // A null department means "no department", which has no per-department counter
+    public void moveStudents(String fromDepartmentId, String toDepartmentId, long count) {
+        if (count == 0 || Objects.equals(fromDepartmentId, toDepartmentId)) return;
+        AfterCommit.run(() -> {
+            if (fromDepartmentId != null) departmentCounter(fromDepartmentId).addAndGet(-count);
+            if (toDepartmentId != null) departmentCounter(toDepartmentId).addAndGet(count);
+        });
+    }
+
+    // For writes whose effect is easier to count than to derive (cascading deletes)
+    public void recountAfterCommit() {
+        AfterCommit.run(this::reconcile);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    // A counter that moved while its COUNT ran is left alone this round, as the query may or may
+    // not include that write; the next round picks it up
+    @Scheduled(fixedDelayString = "${lms.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${lms.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+
+        reconcileLock.lock();
+        try {
+            check(counters.get(Counter.ADMINS), adminRepo::count);
+            check(counters.get(Counter.LECTURERS), lecturerRepo::count);
+            check(counters.get(Counter.LICS), lecturerRepo::countLics);
+            check(counters.get(Counter.STUDENTS), studentRepository::count);
+            check(counters.get(Counter.COURSES), courseRepository::count);
+            check(counters.get(Counter.DEPARTMENTS), departmentRepository::count);
+            check(counters.get(Counter.ENROLLMENTS), enrollmentRepository::count);
+
+            Map<String, Long> before = departmentSnapshot();
+            Map<String, Long> actual = new HashMap<>();
+            for (Tuple row : studentRepository.countByDepartment()) {
+                actual.put(row.get("departmentId", String.class), row.get("students", Long.class));
+            }
+            Map<String, Long> after = departmentSnapshot();
+
+            for (String departmentId : union(actual, after)) {
+                long seen = before.getOrDefault(departmentId, 0L);
+                long current = after.getOrDefault(departmentId, 0L);
+                long expected = actual.getOrDefault(departmentId, 0L);
+                if (seen != current || current == expected) continue;
+                if (departmentCounter(departmentId).compareAndSet(current, expected)) corrections.incrementAndGet();
+            }
+            reconciledAt = Instant.now();
+        } finally {
+            reconcileLock.unlock();
+        }
+
+    }
+
+    public DashboardStats snapshot() {
+
+        return new DashboardStats(
+                counters.get(Counter.ADMINS).get(),
+                counters.get(Counter.LECTURERS).get(),
+                counters.get(Counter.LICS).get(),
+                counters.get(Counter.STUDENTS).get(),
+                counters.get(Counter.COURSES).get(),
+                counters.get(Counter.DEPARTMENTS).get(),
+                counters.get(Counter.ENROLLMENTS).get(),
+                departmentTotals(),
+                reconciledAt);
+
+    }
+
+    public Map<String, Object> stats() {
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("corrections", corrections.get());
+        stats.put("reconciledAt", reconciledAt);
+
+        return stats;
+
+    }
+
+    private void check(AtomicLong counter, LongSupplier query) {
+
+        long seen = counter.get();
+        long expected = query.getAsLong();
+        if (seen != expected && counter.compareAndSet(seen, expected)) corrections.incrementAndGet();
+
+    }
+
+    private AtomicLong departmentCounter(String departmentId) {
+        return studentsPerDepartment.computeIfAbsent(departmentId, k -> new AtomicLong());
+    }
+
+    private Map<String, Long> departmentSnapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        studentsPerDepartment.forEach((departmentId, count) -> snapshot.put(departmentId, count.get()));
+        return snapshot;
+    }
+
+    // Departments whose count dropped to zero keep their counter (removing it could lose a concurrent add) but are not reported
+    private Map<String, Long> departmentTotals() {
+        Map<String, Long> totals = new TreeMap<>();
+        studentsPerDepartment.forEach((departmentId, count) -> {
+            long value = count.get();
+            if (value != 0) totals.put(departmentId, value);
+        });
+        return totals;
+    }
+
+    private static Set<String> union(Map<String, Long> a, Map<String, Long> b) {
+        Set<String> keys = new HashSet<>(a.keySet());
+        keys.addAll(b.keySet());
+        return keys;
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.StudentDirectoryEntry;
+import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.utils.AfterCommit;
+import com.example.lmsproject.utils.OffHeapTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The student directory (scalar columns only) held off-heap in an OffHeapTable, indexed by
+ * student ID and username. Loaded from the database once the application is ready and
+ * periodically after that.
+ *
+ * Each entry keeps the profile version (AggregateVersions) it was read at, and a hit is only
+ * returned while that is still the student's current version. Every student write bumps it, on
+ * any node, so an entry for a student renamed, moved or deleted elsewhere is read again from the
+ * database (or dropped) instead of being served until the next reload. The current version comes
+ * from the per-node version cache, the same bound the profile ETags have. Entries written by the
+ * StudentService write paths carry no version and are read again on their first lookup.
+ *
+ * A miss is never authoritative: students that did not fit (table full, a value wider than its
+ * field) or were created elsewhere since the last reload are simply not here, so callers fall
+ * back to the database.
+ */
+@Component
+public class StudentDirectory {
+
+    private static final int USER_ID = 0;
+    private static final int STUDENT_ID = 1;
+    private static final int USERNAME = 2;
+    private static final int FIRST_NAME = 3;
+    private static final int LAST_NAME = 4;
+    private static final int EMAIL = 5;
+    private static final int PHONE = 6;
+    private static final int DATE_OF_BIRTH = 7;
+    private static final int GENDER = 8;
+    private static final int DEPARTMENT_ID = 9;
+    private static final int VERSION = 10;
+
+    // UTF-8 bytes per field, in the order above
+    private static final int[] FIELD_WIDTHS = {32, 32, 64, 64, 64, 128, 32, 16, 16, 32, 20};
+
+    // Stored by the write paths, which do not know the version their commit ends at
+    private static final String NO_VERSION = "-1";
+
+    // Positions in the table's indexed fields
+    private static final int BY_STUDENT_ID = 0;
+    private static final int BY_USERNAME = 1;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Students held; 0 turns the directory off
+    @Value("${lms.students.directory.capacity:100000}")
+    private int capacity;
+
+    private TransactionTemplate loadTransaction;
+
+    private volatile OffHeapTable table;
+
+    // Changes made while a reload is reading, replayed onto the new table before it is swapped in
+    private final Object writeLock = new Object();
+    private List<Consumer<OffHeapTable>> pending;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setReadOnly(true);
+    }
+
+    public StudentDirectoryEntry findByStudentId(String studentId) {
+        return lookup(BY_STUDENT_ID, studentId);
+    }
+
+    public StudentDirectoryEntry findByUsername(String username) {
+        return lookup(BY_USERNAME, username);
+    }
+
+    public void put(Student student) {
+        String[] values = values(student, NO_VERSION);
+        AfterCommit.run(() -> apply(table -> store(table, values)));
+    }
+
+    public void putAll(Collection<Student> students) {
+        List<String[]> values = students.stream().map(student -> values(student, NO_VERSION)).toList();
+        AfterCommit.run(() -> apply(table -> values.forEach(v -> store(table, v))));
+    }
+
+    public void remove(Student student) {
+        removeAll(List.of(student));
+    }
+
+    public void removeAll(Collection<Student> students) {
+        List<String> studentIds = students.stream().map(Student::getStudentId).toList();
+        AfterCommit.run(() -> apply(table -> studentIds.forEach(table::remove)));
+    }
+
+    // While it runs the old and the new table are both allocated
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${lms.students.directory.reload-interval-ms:3600000}",
+            initialDelayString = "${lms.students.directory.reload-interval-ms:3600000}")
+    public void reload() {
+
+        if (capacity < 1) return;
+
+        synchronized (writeLock) {
+            if (pending != null) return;
+            pending = new ArrayList<>();
+        }
+
+        OffHeapTable fresh = null;
+        try {
+            OffHeapTable loading = newTable();
+            loadTransaction.executeWithoutResult(status -> {
+                // versions first, so a student written in between is stored under an older version and read again
+                Map<String, Long> versions = aggregateVersions.profileVersions();
+                try (Stream<Student> students = studentRepository.streamAll()) {
+                    students.forEach(student -> {
+                        store(loading, values(student, String.valueOf(versions.getOrDefault(student.getUserId(), 0L))));
+                        entityManager.detach(student);
+                    });
+                }
+            });
+            fresh = loading;
+        } finally {
+            synchronized (writeLock) {
+                if (fresh != null) {
+                    for (Consumer<OffHeapTable> change : pending) change.accept(fresh);
+                    table = fresh;
+                }
+                pending = null;
+            }
+        }
+
+    }
+
+    public Map<String, Object> stats() {
+        OffHeapTable current = table;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", capacity);
+        stats.put("entries", current != null ? current.size() : 0);
+        stats.put("recordBytes", current != null ? current.recordSize() : 0);
+        stats.put("offHeapBytes", current != null ? current.offHeapBytes() : 0);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("stale", stale.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private StudentDirectoryEntry lookup(int index, String key) {
+
+        OffHeapTable current = table;
+        String[] values = current != null ? current.get(index, key) : null;
+        if (values == null) {
+            misses.increment();
+            return null;
+        }
+
+        long version = aggregateVersions.profileVersion(values[USER_ID]);
+        if (!String.valueOf(version).equals(values[VERSION])) {
+            stale.increment();
+            return reread(index, key, values, version);
+        }
+        hits.increment();
+
+        return entry(values);
+
+    }
+
+    // The version was read before the student, so a write landing in between leaves the entry stale rather than wrong
+    private StudentDirectoryEntry reread(int index, String key, String[] stored, long version) {
+
+        Student student = index == BY_STUDENT_ID ? studentRepository.findByStudentId(key) : studentRepository.findByUsername(key);
+        if (student == null) {
+            apply(table -> table.remove(stored[STUDENT_ID]));
+            return null;
+        }
+
+        // the username may belong to another student by now, whose version was not read
+        boolean same = student.getUserId().equals(stored[USER_ID]);
+        String[] values = values(student, same ? String.valueOf(version) : NO_VERSION);
+        apply(table -> {
+            if (!same) table.remove(stored[STUDENT_ID]);
+            store(table, values);
+        });
+        return entry(values);
+
+    }
+
+    private static StudentDirectoryEntry entry(String[] values) {
+        return new StudentDirectoryEntry(
+                values[USER_ID],
+                values[STUDENT_ID],
+                values[USERNAME],
+                values[FIRST_NAME],
+                values[LAST_NAME],
+                values[EMAIL],
+                values[PHONE],
+                values[DATE_OF_BIRTH],
+                values[GENDER],
+                values[DEPARTMENT_ID]);
+    }
+
+    private void apply(Consumer<OffHeapTable> change) {
+        synchronized (writeLock) {
+            OffHeapTable current = table;
+            if (current != null) change.accept(current);
+            if (pending != null) pending.add(change);
+        }
+    }
+
+    private void store(OffHeapTable table, String[] values) {
+        if (values[STUDENT_ID] == null) return;
+        if (!table.put(values)) rejected.increment();
+    }
+
+    private OffHeapTable newTable() {
+        return new OffHeapTable(capacity, FIELD_WIDTHS, STUDENT_ID, USERNAME);
+    }
+
+    private static String[] values(Student student, String version) {
+        StudentDirectoryEntry entry = StudentDirectoryEntry.from(student);
+        String[] values = new String[FIELD_WIDTHS.length];
+        values[USER_ID] = entry.userId();
+        values[STUDENT_ID] = entry.studentId();
+        values[USERNAME] = entry.username();
+        values[FIRST_NAME] = entry.firstName();
+        values[LAST_NAME] = entry.lastName();
+        values[EMAIL] = entry.email();
+        values[PHONE] = entry.phone();
+        values[DATE_OF_BIRTH] = entry.dateOfBirth();
+        values[GENDER] = entry.gender();
+        values[DEPARTMENT_ID] = entry.departmentId();
+        values[VERSION] = version;
+        return values;
+    }
+
+}
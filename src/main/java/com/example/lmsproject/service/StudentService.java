@@ -1,19 +1,26 @@
 package com.example.lmsproject.service;
 
 
-import com.example.lmsproject.auth.PWEncoder;
+import com.example.lmsproject.auth.PasswordHashingService;
+import com.example.lmsproject.auth.UserDetailsCache;
+import com.example.lmsproject.entity.CourseSummary;
 import com.example.lmsproject.entity.Department;
 import com.example.lmsproject.entity.Lecturer;
 import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.StudentDirectoryEntry;
+import com.example.lmsproject.entity.StudentProfileView;
 import com.example.lmsproject.repository.DepartmentRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
 import com.example.lmsproject.repository.StudentRepository;
-import com.example.lmsproject.utils.Utils;
+import com.example.lmsproject.utils.CursorPage;
+import com.example.lmsproject.utils.IdPrefix;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class StudentService {
@@ -23,32 +30,77 @@ public class StudentService {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private IdSequenceService idSequenceService;
 
-    public Student saveDetails(Student student) {
+    @Autowired
+    private UserDetailsCache userDetailsCache;
 
-        String lastUserID = studentRepository.getLastUserID();
-        if(lastUserID != null){
-            student.setUserId(Utils.nextId(lastUserID));
-        } else {
-            student.setUserId("USER-0000001");
-        }
+    @Autowired
+    private AggregateVersions aggregateVersions;
 
-        String lastStudentId = studentRepository.getLastStudentId();
-        if(lastStudentId != null){
-            student.setStudentId(Utils.nextId(lastStudentId));
-        }
-        else {
-            student.setStudentId("STD-0000001");
-        }
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private StudentDirectory studentDirectory;
+
+    @Autowired
+    private SeatReservations seatReservations;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private BatchInserter batchInserter;
+
+    public Student saveDetails(Student student) {
+
+        student.setUserId(idSequenceService.nextId(IdPrefix.USER));
+        student.setStudentId(idSequenceService.nextId(IdPrefix.STUDENT));
 
         student.setRole("STUDENT");
-        student.setPassword(PWEncoder.encode(student.getPassword()));
+        student.setPassword(passwordHashingService.encode(student.getPassword()));
 
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        studentDirectory.put(saved);
+        aggregateVersions.bumpProfile(saved.getUserId());
+        statsRegistry.addStudents(departmentId(saved.getDepartment()), 1);
+        return saved;
     }
 
-    public List<Student> saveAllDetails(List<Student> student) {
-        return studentRepository.saveAll(student);
+    // Bulk create: IDs come from pre-allocated ranges and passwords are hashed in parallel before the
+    // transaction opens; rows are then inserted with JDBC batching, flushing and clearing every chunk
+    public List<Student> saveAllDetails(List<Student> students) {
+
+        if (students.isEmpty()) return students;
+
+        List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, students.size());
+        List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, students.size());
+        List<String> hashes = passwordHashingService.encodeAll(students.stream().map(Student::getPassword).toList());
+
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            student.setUserId(userIds.get(i));
+            student.setStudentId(studentIds.get(i));
+            student.setRole("STUDENT");
+            student.setPassword(hashes.get(i));
+        }
+
+        batchInserter.insertAll(students, Student::getDepartment, Student::setDepartment);
+        studentDirectory.putAll(students);
+        aggregateVersions.bumpProfiles(userIds);
+        for (Student student : students) {
+            statsRegistry.addStudents(departmentId(student.getDepartment()), 1);
+        }
+
+        return students;
     }
 
     public Student getStudentById(String id){
@@ -64,23 +116,67 @@ public class StudentService {
         return studentRepository.findAll();
     }
 
+    public CursorPage<Student> getStudentsPage(String cursor, Integer size){
+        int pageSize = CursorPage.clampSize(size);
+        List<Student> students = studentRepository.findPage(CursorPage.decode(cursor), CursorPage.fetchSize(pageSize));
+        return CursorPage.of(students, pageSize, Student::getUserId);
+    }
+
+    public CursorPage<Student> getStudentsPageByDepartmentId(String departmentId, String cursor, Integer size){
+        int pageSize = CursorPage.clampSize(size);
+        List<Student> students = studentRepository.findPageByDepartment(departmentId, CursorPage.decode(cursor), CursorPage.fetchSize(pageSize));
+        return CursorPage.of(students, pageSize, Student::getUserId);
+    }
+
     public Student findByUsername(String username) {
         return studentRepository.findByUsername(username);
     }
 
+    // Directory first, the database for anything it does not hold
+    public StudentDirectoryEntry lookupByStudentId(String studentId) {
+        StudentDirectoryEntry entry = studentDirectory.findByStudentId(studentId);
+        return entry != null ? entry : StudentDirectoryEntry.from(studentRepository.findByStudentId(studentId));
+    }
 
-    public Map<String, String> getByUsername(String studentId){
-        Student student = studentRepository.findByUsername(studentId);
+    public StudentDirectoryEntry lookupByUsername(String username) {
+        StudentDirectoryEntry entry = studentDirectory.findByUsername(username);
+        return entry != null ? entry : StudentDirectoryEntry.from(studentRepository.findByUsername(username));
+    }
 
-        Map<String, String> studentMap = new HashMap<>();
-        studentMap.put("studentID", student.getStudentId());
-        studentMap.put("email", student.getEmail());
-        studentMap.put("phone", student.getPhone());
-        studentMap.put("firstName", student.getFirstName());
-        studentMap.put("lastName", student.getLastName());
-        studentMap.put("courses", student.getCourses().toString());
+    // The student comes from the directory and the department from the second-level cache, so only
+    // the course list is read from the database
+    public StudentProfileView getPublicProfile(StudentDirectoryEntry entry) {
+
+        Department department = entry.departmentId() != null ? departmentRepository.findById(entry.departmentId()).orElse(null) : null;
+
+        return new StudentProfileView(
+                entry.userId(),
+                entry.studentId(),
+                entry.username(),
+                entry.firstName(),
+                entry.lastName(),
+                entry.email(),
+                entry.phone(),
+                entry.dateOfBirth(),
+                entry.gender(),
+                department != null ? department.getId() : null,
+                department != null ? department.getName() : null,
+                enrollmentRepository.findCourseSummaries(entry.userId()));
 
-        return studentMap;
+    }
+
+
+    // The signed-in student's own profile, courses listed by name as before
+    public StudentProfileView getProfile(String username){
+        StudentDirectoryEntry entry = lookupByUsername(username);
+        if (entry == null) return null;
+
+        StudentProfileView profile = getPublicProfile(entry);
+        List<CourseSummary> courses = new ArrayList<>(profile.courses());
+        courses.sort(Comparator.comparing(CourseSummary::courseName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return new StudentProfileView(profile.userId(), profile.studentId(), profile.username(), profile.firstName(),
+                profile.lastName(), profile.email(), profile.phone(), profile.dateOfBirth(), profile.gender(),
+                profile.departmentId(), profile.departmentName(), courses);
     }
 
 
@@ -90,15 +186,34 @@ public class StudentService {
             student.setFirstName(updatedStudent.getFirstName());
             student.setLastName(updatedStudent.getLastName());
             student.setEmail(updatedStudent.getEmail());
-            return studentRepository.save(student);
+            Student saved = studentRepository.save(student);
+            userDetailsCache.evict(saved.getUsername());
+            studentDirectory.put(saved);
+            aggregateVersions.bumpProfile(saved.getUserId());
+            return saved;
         }
         return null;
     }
 
 
+    @Transactional
     public boolean deleteStudent(String id) {
-        if (studentRepository.existsById(id)) {
-            studentRepository.deleteById(id);
+        Student student = studentRepository.findById(id).orElse(null);
+        if (student != null) {
+            long enrollments = enrollmentRepository.countForStudent(id);
+            List<CourseSummary> courses = enrollmentRepository.findCourseSummaries(id);
+            studentRepository.delete(student);
+            // the delete takes the student's enrollment rows with it; flushed so the recounts below see that
+            studentRepository.flush();
+            courses.forEach(course -> {
+                seatReservations.recount(course.courseId());
+                waitlistService.seatFreed(course.courseId());
+            });
+            userDetailsCache.evict(student.getUsername());
+            studentDirectory.remove(student);
+            aggregateVersions.bumpProfile(student.getUserId());
+            statsRegistry.addStudents(departmentId(student.getDepartment()), -1);
+            statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, -enrollments);
             return true;
         }
         return false;
@@ -108,8 +223,13 @@ public class StudentService {
         Student student = studentRepository.findById(userId).orElse(null);
         if (student != null) {
             Department department = departmentRepository.findByDepartmentId(departmentId);
+            String previousDepartmentId = departmentId(student.getDepartment());
             student.setDepartment(department);
-            return studentRepository.save(student);
+            Student saved = studentRepository.save(student);
+            studentDirectory.put(saved);
+            aggregateVersions.bumpProfile(saved.getUserId());
+            statsRegistry.moveStudents(previousDepartmentId, departmentId(department), 1);
+            return saved;
         }
         return null;
     }
@@ -174,4 +294,9 @@ public class StudentService {
 
 
 
+    // getDepartmentId is the identifier getter, which a detached proxy (see BatchInserter) answers without a session
+    private static String departmentId(Department department) {
+        return department != null ? department.getDepartmentId() : null;
+    }
+
 }
@@ -1,6 +1,6 @@
 package com.example.lmsproject.service;
 
-public interface UserService<T> extends ServiceInterface<T> {
+public interface UserService<T, V> extends ServiceInterface<T, V> {
 
     public T changePassword(String id, String password);
 
@@ -0,0 +1,327 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.WaitlistResult;
+import com.example.lmsproject.entity.WaitlistRow;
+import com.example.lmsproject.repository.CourseRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.repository.StudentRepository;
+import com.example.lmsproject.repository.WaitlistRepository;
+import com.example.lmsproject.utils.AfterCommit;
+import com.example.lmsproject.utils.BoundedCache;
+import com.example.lmsproject.utils.RankedQueue;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Per-course waitlists, ordered by priority (higher first) and then by join order.
+ *
+ * The course_waitlist table is the source of truth. Positions are answered from an in-memory
+ * RankedQueue per course, loaded on first use and kept current by this node's joins, leaves and
+ * promotions; the TTL bounds how long changes made on other nodes (or by cascading deletes) take
+ * to show up in positions.
+ *
+ * Promotion runs on a single background thread, signalled after a seat is freed or a student
+ * joins, and by a periodic sweep that covers seats freed on other nodes. Each course is promoted
+ * in one transaction that locks the course row (as SeatReservations does), takes the head of the
+ * waitlist up to the seats left, deletes those rows and inserts their enrollments in one batch.
+ * The course row lock serializes promoters on every node and the deleted rows cannot be taken
+ * twice, so each waiting student is promoted exactly once.
+ */
+@Service
+public class WaitlistService {
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SeatReservations seatReservations;
+
+    @Autowired
+    private AggregateVersions aggregateVersions;
+
+    @Autowired
+    private StatsRegistry statsRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${lms.waitlist.queues.max-entries:1000}")
+    private int maxQueues;
+
+    @Value("${lms.waitlist.queues.ttl-seconds:60}")
+    private long queueTtlSeconds;
+
+    // Students promoted per transaction
+    @Value("${lms.waitlist.promotion-batch-size:100}")
+    private int promotionBatchSize;
+
+    @Value("${lms.enrollment.batch-size:500}")
+    private int enrollmentBatchSize;
+
+    private BoundedCache<String, CourseQueue> queues;
+
+    private TransactionTemplate promotionTransaction;
+
+    private ExecutorService promoter;
+
+    // Courses waiting for the promoter; draining is true while a drain is queued or running
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder left = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder promotionRuns = new LongAdder();
+    private final LongAdder promotionFailures = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        queues = new BoundedCache<>(maxQueues, queueTtlSeconds * 1000);
+        promotionTransaction = new TransactionTemplate(transactionManager);
+
+        promoter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-promoter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        promoter.shutdown();
+    }
+
+    public WaitlistResult join(String studentId, String courseId, int priority) {
+
+        if (!studentRepository.existsById(studentId)) {
+            return WaitlistResult.of(WaitlistResult.Status.STUDENT_NOT_FOUND, studentId, courseId);
+        }
+        if (!courseRepository.existsById(courseId)) {
+            return WaitlistResult.of(WaitlistResult.Status.COURSE_NOT_FOUND, studentId, courseId);
+        }
+        if (enrollmentRepository.exists(studentId, courseId)) {
+            return WaitlistResult.of(WaitlistResult.Status.ALREADY_ENROLLED, studentId, courseId);
+        }
+
+        // the unique constraint catches a second join of the same pair
+        WaitlistRow row;
+        try {
+            row = waitlistRepository.insert(courseId, studentId, priority);
+        } catch (DuplicateKeyException e) {
+            return position(WaitlistResult.Status.ALREADY_WAITING, studentId, courseId);
+        }
+
+        joined.increment();
+        update(courseId, queue -> queue.add(row));
+        WaitlistResult result = position(WaitlistResult.Status.WAITING, studentId, courseId);
+        // a seat may already be free
+        seatFreed(courseId);
+        return result;
+    }
+
+    public WaitlistResult leave(String studentId, String courseId) {
+
+        if (waitlistRepository.delete(courseId, studentId)) {
+            left.increment();
+            update(courseId, queue -> queue.remove(studentId));
+            return WaitlistResult.of(WaitlistResult.Status.LEFT, studentId, courseId);
+        }
+
+        // nothing deleted, work out why
+        if (!studentRepository.existsById(studentId)) {
+            return WaitlistResult.of(WaitlistResult.Status.STUDENT_NOT_FOUND, studentId, courseId);
+        }
+        if (!courseRepository.existsById(courseId)) {
+            return WaitlistResult.of(WaitlistResult.Status.COURSE_NOT_FOUND, studentId, courseId);
+        }
+        return WaitlistResult.of(WaitlistResult.Status.NOT_WAITING, studentId, courseId);
+    }
+
+    public WaitlistResult getPosition(String studentId, String courseId) {
+        return position(WaitlistResult.Status.WAITING, studentId, courseId);
+    }
+
+    // Direct enrollments give way while anyone is waiting, so a freed seat goes to the head of the line
+    public boolean hasWaiting(String courseId) {
+        return waitlistRepository.hasWaiting(courseId);
+    }
+
+    public Set<String> coursesWithWaiting(List<String> courseIds) {
+        return waitlistRepository.findWaitingCourseIds(courseIds);
+    }
+
+    // After a drop, a capacity change or a delete that may have freed seats in the course
+    public void seatFreed(String courseId) {
+        AfterCommit.run(() -> signal(courseId));
+    }
+
+    public void courseDeleted(String courseId) {
+        AfterCommit.run(() -> queues.invalidate(courseId));
+    }
+
+    // Picks up seats freed on other nodes and signals lost to a restart
+    @Scheduled(fixedDelayString = "${lms.waitlist.sweep-interval-ms:30000}")
+    public void sweep() {
+        waitlistRepository.findWaitingCourseIds().forEach(this::signal);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("joined", joined.sum());
+        stats.put("left", left.sum());
+        stats.put("promoted", promoted.sum());
+        stats.put("promotionRuns", promotionRuns.sum());
+        stats.put("promotionFailures", promotionFailures.sum());
+        stats.put("pendingCourses", pending.size());
+        stats.put("queues", queues.stats());
+        return stats;
+    }
+
+    private WaitlistResult position(WaitlistResult.Status status, String studentId, String courseId) {
+        CourseQueue queue = queues.get(courseId, this::load);
+        return queue.position(status, studentId, courseId);
+    }
+
+    private CourseQueue load(String courseId) {
+        CourseQueue queue = new CourseQueue();
+        waitlistRepository.findByCourse(courseId).forEach(queue::add);
+        return queue;
+    }
+
+    // Applies a committed change to the cached queue. Without one, the invalidation keeps a load
+    // that read the table before the commit from being cached.
+    private void update(String courseId, Consumer<CourseQueue> change) {
+        AfterCommit.run(() -> {
+            CourseQueue queue = queues.get(courseId);
+            if (queue != null) {
+                change.accept(queue);
+            } else {
+                queues.invalidate(courseId);
+            }
+        });
+    }
+
+    private void signal(String courseId) {
+        pending.add(courseId);
+        if (draining.compareAndSet(false, true)) promoter.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            Iterator<String> courses = pending.iterator();
+            while (courses.hasNext()) {
+                String courseId = courses.next();
+                courses.remove();
+                try {
+                    while (promote(courseId) == promotionBatchSize) {
+                        // a full batch, there may be more seats and more students
+                    }
+                } catch (RuntimeException e) {
+                    // left for the next signal or sweep
+                    promotionFailures.increment();
+                }
+            }
+        } finally {
+            draining.set(false);
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) promoter.execute(this::drain);
+        }
+    }
+
+    // Returns the number of waitlist rows taken off the head
+    private int promote(String courseId) {
+
+        if (!waitlistRepository.hasWaiting(courseId)) return 0;
+        promotionRuns.increment();
+
+        List<WaitlistRow> head = promotionTransaction.execute(status -> {
+
+            int seatsLeft = seatReservations.lockSeatsLeft(courseId);
+            if (seatsLeft <= 0) return List.<WaitlistRow>of();
+
+            List<WaitlistRow> rows = waitlistRepository.lockHead(courseId, Math.min(seatsLeft, promotionBatchSize));
+            if (rows.isEmpty()) return rows;
+
+            // someone who got in another way just leaves the line, without a seat
+            Set<String> enrolled = enrollmentRepository.findEnrolledStudentIds(courseId,
+                    rows.stream().map(WaitlistRow::studentId).toList());
+            List<String[]> enrollments = rows.stream()
+                    .filter(row -> !enrolled.contains(row.studentId()))
+                    .map(row -> new String[]{row.studentId(), courseId})
+                    .toList();
+
+            waitlistRepository.deleteAll(rows);
+            boolean[] inserted = enrollmentRepository.insertAll(enrollments, enrollmentBatchSize);
+            seatReservations.recount(courseId);
+
+            // a student deleted meanwhile leaves the line without an enrollment
+            List<String> studentIds = new ArrayList<>();
+            for (int i = 0; i < enrollments.size(); i++) {
+                if (inserted[i]) studentIds.add(enrollments.get(i)[0]);
+            }
+            aggregateVersions.bumpProfiles(studentIds);
+            statsRegistry.add(StatsRegistry.Counter.ENROLLMENTS, studentIds.size());
+            update(courseId, queue -> rows.forEach(row -> queue.remove(row.studentId())));
+            AfterCommit.run(() -> promoted.add(studentIds.size()));
+            return rows;
+
+        });
+
+        return head.size();
+
+    }
+
+    private static final class CourseQueue {
+
+        private final RankedQueue<WaitlistRow> order = new RankedQueue<>(WaitlistRow.PROMOTION_ORDER);
+        private final Map<String, WaitlistRow> byStudent = new HashMap<>();
+
+        synchronized void add(WaitlistRow row) {
+            if (byStudent.putIfAbsent(row.studentId(), row) == null) order.add(row);
+        }
+
+        synchronized void remove(String studentId) {
+            WaitlistRow row = byStudent.remove(studentId);
+            if (row != null) order.remove(row);
+        }
+
+        synchronized WaitlistResult position(WaitlistResult.Status status, String studentId, String courseId) {
+            WaitlistRow row = byStudent.get(studentId);
+            if (row == null) {
+                return new WaitlistResult(WaitlistResult.Status.NOT_WAITING, studentId, courseId, null, order.size());
+            }
+            return new WaitlistResult(status, studentId, courseId, order.rank(row) + 1, order.size());
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.example.lmsproject.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    // Runs the action once the surrounding transaction commits (never on rollback), or right away
+    // when there is none. For in-memory state that must not get ahead of what other readers can see.
+    public static void run(Runnable action) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.example.lmsproject.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small LRU cache with a per-entry time to live, optionally also bounded by the total weight
+ * (e.g. bytes) of its values. Invalidation bumps an epoch so a load that raced with it is never stored.
+ */
+public class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt, long weight) {}
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong epoch = new AtomicLong();
+
+    // guarded by entries
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, Long.MAX_VALUE, value -> 0, ttlMillis);
+    }
+
+    // Least recently used entries are also evicted while the weights of the values add up to more than maxWeight
+    public BoundedCache(int maxEntries, long maxWeight, ToLongFunction<? super V> weigher, long ttlMillis) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+        if (maxWeight < 1) throw new IllegalArgumentException("maxWeight must be positive");
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxEntries) {
+                    weight -= eldest.getValue().weight();
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                weight -= entry.weight();
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    // Null results are not cached
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+
+        long loadEpoch = epoch.get();
+        value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (loadEpoch == epoch.get()) store(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            store(key, value);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            epoch.incrementAndGet();
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) weight -= removed.weight();
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            epoch.incrementAndGet();
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) size());
+        stats.put("maxEntries", (long) maxEntries);
+        if (maxWeight != Long.MAX_VALUE) {
+            synchronized (entries) {
+                stats.put("weight", weight);
+            }
+            stats.put("maxWeight", maxWeight);
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    // caller holds entries
+    private void store(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos, weigher.applyAsLong(value));
+        Entry<V> previous = entries.put(key, entry);
+        weight += entry.weight();
+        if (previous != null) weight -= previous.weight();
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+}
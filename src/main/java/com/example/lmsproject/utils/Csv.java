@@ -0,0 +1,70 @@
+package com.example.lmsproject.utils;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 style reading and writing, quoted fields may contain commas, quotes and line breaks
+public class Csv {
+
+    // Returns null at the end of the input
+    public static List<String> readRecord(LineNumberReader reader) throws IOException {
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+
+        while ((c = reader.read()) != -1) {
+            read = true;
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') reader.reset();
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+
+        if (!read) return null;
+
+        fields.add(field.toString());
+        return fields;
+
+    }
+
+    public static String escape(String value) {
+
+        if (value == null) return "";
+
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+
+        return needsQuotes ? '"' + value.replace("\"", "\"\"") + '"' : value;
+
+    }
+
+}
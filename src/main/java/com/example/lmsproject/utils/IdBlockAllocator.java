@@ -0,0 +1,56 @@
+package com.example.lmsproject.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out sequence values from blocks reserved in the database.
+ * Callers only contend on an AtomicLong; the source is hit once per block.
+ */
+public class IdBlockAllocator {
+
+    public interface BlockSource {
+        // Reserves [first, first + size) and returns first
+        long reserve(int size);
+    }
+
+    private record Block(AtomicLong next, long end) {}
+
+    private final BlockSource source;
+    private final int blockSize;
+
+    private volatile Block current;
+
+    // Not synchronized: a virtual thread blocked on the database inside a monitor would pin its carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public IdBlockAllocator(BlockSource source, int blockSize) {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be positive");
+        this.source = source;
+        this.blockSize = blockSize;
+    }
+
+    public long next() {
+        while (true) {
+            Block block = current;
+            if (block != null) {
+                long value = block.next().getAndIncrement();
+                if (value < block.end()) return value;
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (current == exhausted) {
+                long first = source.reserve(blockSize);
+                current = new Block(new AtomicLong(first), first + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.lmsproject.utils;
+
+public enum IdPrefix {
+
+    USER("USER", 7),
+    STUDENT("STD", 7),
+    LECTURER("LEC", 5),
+    COURSE("CRS", 5),
+    DEPARTMENT("DEP", 5);
+
+    private final String code;
+    private final int width;
+
+    IdPrefix(String code, int width) {
+        this.code = code;
+        this.width = width;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    // PREFIX-000123, zero padded to the width the existing IDs use
+    public String format(long value) {
+        String number = String.valueOf(value);
+        StringBuilder id = new StringBuilder(code).append('-');
+        for (int i = number.length(); i < width; i++) {
+            id.append('0');
+        }
+        return id.append(number).toString();
+    }
+
+    public static long parse(String id) {
+        if (id == null) return 0;
+        int dash = id.lastIndexOf('-');
+        try {
+            return Long.parseLong(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+}
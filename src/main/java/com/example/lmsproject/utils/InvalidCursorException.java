@@ -0,0 +1,9 @@
+package com.example.lmsproject.utils;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.example.lmsproject.utils;
+
+import com.example.lmsproject.entity.Admin;
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.entity.Student;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Row shapes for the admin listings, written field by field to a JsonGenerator
+ * so a listing never exists in memory as a tree or as one big String.
+ */
+public final class JsonRows {
+
+    @FunctionalInterface
+    public interface RowSerializer<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public static final RowSerializer<Admin> ADMIN = (generator, admin) -> {
+        generator.writeStartObject();
+        generator.writeStringField("userId", admin.getUserId());
+        generator.writeStringField("username", admin.getUsername());
+        generator.writeStringField("firstName", admin.getFirstName());
+        generator.writeStringField("lastName", admin.getLastName());
+        generator.writeStringField("email", admin.getEmail());
+        generator.writeStringField("phone", admin.getPhone());
+        generator.writeStringField("role", admin.getRole());
+        generator.writeBooleanField("adminStatus", admin.isAdminStatus());
+        generator.writeEndObject();
+    };
+
+    // userId carries the lecturer ID, which is what the dashboard has always received here
+    public static final RowSerializer<Lecturer> LECTURER = (generator, lecturer) -> {
+        generator.writeStartObject();
+        generator.writeStringField("userId", lecturer.getLecturerID());
+        generator.writeStringField("username", lecturer.getUsername());
+        generator.writeStringField("firstName", lecturer.getFirstName());
+        generator.writeStringField("lastName", lecturer.getLastName());
+        generator.writeStringField("email", lecturer.getEmail());
+        generator.writeStringField("phone", lecturer.getPhone());
+        generator.writeStringField("role", lecturer.getRole());
+        generator.writeStringField("department", lecturer.getDepartment() != null ? lecturer.getDepartment().getName() : "No Department");
+        generator.writeEndObject();
+    };
+
+    public static final RowSerializer<Department> DEPARTMENT = (generator, department) -> {
+        generator.writeStartObject();
+        generator.writeStringField("id", department.getId());
+        generator.writeStringField("name", department.getName());
+        generator.writeStringField("description", department.getDescription());
+        generator.writeEndObject();
+    };
+
+    public static final RowSerializer<Course> COURSE = (generator, course) -> {
+        generator.writeStartObject();
+        generator.writeStringField("courseId", course.getCourseId());
+        generator.writeStringField("courseName", course.getCourseName());
+        generator.writeStringField("departmentId", course.getDepartment() != null ? course.getDepartment().getId() : null);
+        generator.writeStringField("department", course.getDepartment() != null ? course.getDepartment().getName() : "No Department");
+        generator.writeEndObject();
+    };
+
+    public static final RowSerializer<Student> STUDENT = (generator, student) -> {
+        generator.writeStartObject();
+        generator.writeStringField("userId", student.getUserId());
+        generator.writeStringField("studentId", student.getStudentId());
+        generator.writeStringField("username", student.getUsername());
+        generator.writeStringField("firstName", student.getFirstName());
+        generator.writeStringField("lastName", student.getLastName());
+        generator.writeStringField("email", student.getEmail());
+        generator.writeStringField("phone", student.getPhone());
+        generator.writeStringField("departmentId", student.getDepartment() != null ? student.getDepartment().getId() : null);
+        generator.writeStringField("department", student.getDepartment() != null ? student.getDepartment().getName() : "No Department");
+        generator.writeEndObject();
+    };
+
+    private JsonRows() {
+    }
+
+    // The caller owns the stream; closing the generator only flushes it
+    public static JsonGenerator open(OutputStream out) throws IOException {
+        return JSON_FACTORY.createGenerator(out);
+    }
+
+    public static <T> void writeArray(JsonGenerator generator, Iterator<T> rows, RowSerializer<T> serializer) throws IOException {
+        generator.writeStartArray();
+        while (rows.hasNext()) {
+            serializer.write(generator, rows.next());
+        }
+        generator.writeEndArray();
+    }
+
+    public static <T> void writeArray(OutputStream out, Iterator<T> rows, RowSerializer<T> serializer) throws IOException {
+        try (JsonGenerator generator = open(out)) {
+            writeArray(generator, rows, serializer);
+        }
+    }
+
+}
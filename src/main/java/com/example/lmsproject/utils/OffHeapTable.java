@@ -0,0 +1,355 @@
+package com.example.lmsproject.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-layout string records kept in direct memory, so a large table costs the collector one
+ * buffer object instead of millions of small ones.
+ *
+ * Every record has the same size: a state byte, a free-list link, then one slot per field of
+ * {@code fieldWidths[i]} UTF-8 bytes behind a 2 byte length (-1 for null). Values that do not fit
+ * are rejected rather than truncated. Each indexed field gets an open-addressing hash index, also
+ * off-heap, of (hash, record) int pairs with linear probing. The first indexed field is the
+ * primary key; putting a record with an existing primary key overwrites it in place.
+ *
+ * Writes are serialized; reads are optimistic and retried under the read lock if a write
+ * overlapped them.
+ */
+public class OffHeapTable {
+
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+    private static final int HEADER = 1 + Integer.BYTES;
+    private static final int LENGTH = Short.BYTES;
+
+    // index entry: int hash, int record (EMPTY, TOMBSTONE or record + 1)
+    private static final int ENTRY = 2 * Integer.BYTES;
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+
+    private final int capacity;
+    private final int[] fieldWidths;
+    private final int[] fieldOffsets;
+    private final int recordSize;
+    private final ByteBuffer records;
+    private final Index[] indexes;
+
+    private final StampedLock lock = new StampedLock();
+
+    private int size;
+    private int nextUnused;
+    private int freeHead = -1;
+
+    public OffHeapTable(int capacity, int[] fieldWidths, int... indexedFields) {
+
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        if (indexedFields.length == 0) throw new IllegalArgumentException("at least one indexed field is required");
+
+        this.capacity = capacity;
+        this.fieldWidths = fieldWidths.clone();
+        this.fieldOffsets = new int[fieldWidths.length];
+
+        int offset = HEADER;
+        for (int i = 0; i < fieldWidths.length; i++) {
+            if (fieldWidths[i] < 1 || fieldWidths[i] > Short.MAX_VALUE) throw new IllegalArgumentException("bad width for field " + i);
+            fieldOffsets[i] = offset;
+            offset += LENGTH + fieldWidths[i];
+        }
+        this.recordSize = offset;
+
+        if ((long) capacity * recordSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity too large for one buffer: " + capacity + " records of " + recordSize + " bytes");
+        }
+        this.records = ByteBuffer.allocateDirect(capacity * recordSize);
+
+        // at most half full, so probe sequences stay short
+        int slots = Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+        this.indexes = new Index[indexedFields.length];
+        for (int i = 0; i < indexedFields.length; i++) {
+            indexes[i] = new Index(indexedFields[i], slots);
+        }
+
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+    public long offHeapBytes() {
+        long bytes = records.capacity();
+        for (Index index : indexes) bytes += index.entries.capacity();
+        return bytes;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Looks up a record by one of the indexed fields, {@code index} being its position in the
+     * constructor's indexedFields. Returns the field values, or null.
+     */
+    public String[] get(int index, String key) {
+
+        if (key == null) return null;
+        byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+        Index target = indexes[index];
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                String[] values = read(target, key.hashCode(), encoded);
+                if (lock.validate(stamp)) return values;
+            } catch (RuntimeException e) {
+                // a concurrent write left a half-written record, retry under the lock
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(target, key.hashCode(), encoded);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+    }
+
+    /**
+     * Inserts or replaces the record with this primary key. Returns false, leaving no record for
+     * the key, if a value is wider than its field or the table is full. Another record holding
+     * one of the new secondary keys is stale and is removed.
+     */
+    public boolean put(String... values) {
+
+        if (values.length != fieldWidths.length) throw new IllegalArgumentException("expected " + fieldWidths.length + " values");
+        Index primary = indexes[0];
+        String primaryKey = values[primary.field];
+        if (primaryKey == null) throw new IllegalArgumentException("primary key is null");
+
+        byte[][] encoded = new byte[values.length][];
+        boolean fits = true;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) continue;
+            encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            if (encoded[i].length > fieldWidths[i]) fits = false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+
+            for (Index index : indexes) index.ensureRoom();
+
+            int record = primary.find(primaryKey.hashCode(), encoded[primary.field]);
+            if (!fits) {
+                if (record >= 0) delete(record);
+                return false;
+            }
+
+            boolean existed = record >= 0;
+            if (existed) {
+                for (int i = 1; i < indexes.length; i++) indexes[i].remove(record);
+            } else {
+                record = allocate();
+                if (record < 0) return false;
+            }
+
+            for (int i = 1; i < indexes.length; i++) {
+                Index index = indexes[i];
+                byte[] key = encoded[index.field];
+                if (key == null) continue;
+                int stale = index.find(values[index.field].hashCode(), key);
+                if (stale >= 0 && stale != record) delete(stale);
+            }
+
+            int base = record * recordSize;
+            records.put(base, LIVE);
+            for (int i = 0; i < values.length; i++) {
+                int position = base + fieldOffsets[i];
+                if (encoded[i] == null) {
+                    records.putShort(position, (short) -1);
+                } else {
+                    records.putShort(position, (short) encoded[i].length);
+                    records.put(position + LENGTH, encoded[i]);
+                }
+            }
+
+            if (!existed) primary.add(primaryKey.hashCode(), record);
+            for (int i = 1; i < indexes.length; i++) {
+                Index index = indexes[i];
+                if (values[index.field] != null) index.add(values[index.field].hashCode(), record);
+            }
+
+            return true;
+
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+    }
+
+    public boolean remove(String primaryKey) {
+
+        if (primaryKey == null) return false;
+        byte[] encoded = primaryKey.getBytes(StandardCharsets.UTF_8);
+
+        long stamp = lock.writeLock();
+        try {
+            int record = indexes[0].find(primaryKey.hashCode(), encoded);
+            if (record < 0) return false;
+            delete(record);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+    }
+
+    private String[] read(Index index, int hash, byte[] key) {
+
+        int record = index.find(hash, key);
+        if (record < 0) return null;
+
+        int base = record * recordSize;
+        String[] values = new String[fieldWidths.length];
+        for (int i = 0; i < values.length; i++) {
+            int position = base + fieldOffsets[i];
+            short length = records.getShort(position);
+            if (length < 0) continue;
+            byte[] bytes = new byte[length];
+            records.get(position + LENGTH, bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+
+    }
+
+    // Caller holds the write lock
+    private int allocate() {
+        int record;
+        if (freeHead >= 0) {
+            record = freeHead;
+            freeHead = records.getInt(record * recordSize + 1);
+        } else if (nextUnused < capacity) {
+            record = nextUnused++;
+        } else {
+            return -1;
+        }
+        size++;
+        return record;
+    }
+
+    // Caller holds the write lock
+    private void delete(int record) {
+        for (Index index : indexes) index.remove(record);
+        int base = record * recordSize;
+        records.put(base, FREE);
+        records.putInt(base + 1, freeHead);
+        freeHead = record;
+        size--;
+    }
+
+    private boolean fieldEquals(int record, int field, byte[] key) {
+        int position = record * recordSize + fieldOffsets[field];
+        if (records.getShort(position) != key.length) return false;
+        byte[] stored = new byte[key.length];
+        records.get(position + LENGTH, stored);
+        return Arrays.equals(stored, key);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Index {
+
+        private final int field;
+        private final int mask;
+        private final ByteBuffer entries;
+        private int used;
+
+        Index(int field, int slots) {
+            this.field = field;
+            this.mask = slots - 1;
+            this.entries = ByteBuffer.allocateDirect(slots * ENTRY);
+        }
+
+        int find(int hash, byte[] key) {
+            if (key == null) return -1;
+            for (int slot = spread(hash) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                int record = entries.getInt(slot * ENTRY + Integer.BYTES);
+                if (record == EMPTY) return -1;
+                if (record != TOMBSTONE && entries.getInt(slot * ENTRY) == hash && fieldEquals(record - 1, field, key)) {
+                    return record - 1;
+                }
+            }
+            return -1;
+        }
+
+        void add(int hash, int record) {
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                int existing = entries.getInt(slot * ENTRY + Integer.BYTES);
+                if (existing == EMPTY || existing == TOMBSTONE) {
+                    if (existing == EMPTY) used++;
+                    entries.putInt(slot * ENTRY, hash);
+                    entries.putInt(slot * ENTRY + Integer.BYTES, record + 1);
+                    return;
+                }
+            }
+        }
+
+        // Probes for the record by its stored key, so call before the record is overwritten or freed
+        void remove(int record) {
+            String key = storedKey(record);
+            if (key == null) return;
+            int hash = key.hashCode();
+            for (int slot = spread(hash) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                int existing = entries.getInt(slot * ENTRY + Integer.BYTES);
+                if (existing == EMPTY) return;
+                if (existing == record + 1) {
+                    entries.putInt(slot * ENTRY + Integer.BYTES, TOMBSTONE);
+                    return;
+                }
+            }
+        }
+
+        // Tombstones count as used until a rebuild; keep at least a quarter of the slots empty so probes end
+        void ensureRoom() {
+            if (used + 1 > (mask + 1) - ((mask + 1) >>> 2)) rebuild();
+        }
+
+        private String storedKey(int record) {
+            int position = record * recordSize + fieldOffsets[field];
+            short length = records.getShort(position);
+            if (length < 0) return null;
+            byte[] bytes = new byte[length];
+            records.get(position + LENGTH, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void rebuild() {
+            for (int slot = 0; slot <= mask; slot++) {
+                entries.putInt(slot * ENTRY + Integer.BYTES, EMPTY);
+            }
+            used = 0;
+            for (int record = 0; record < nextUnused; record++) {
+                if (records.get(record * recordSize) != LIVE) continue;
+                String key = storedKey(record);
+                if (key != null) add(key.hashCode(), record);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.example.lmsproject.utils;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Priority queue that can also tell where an element stands: a treap (a binary search tree kept
+ * balanced by random heap priorities) whose nodes count their subtree, so add, remove, first and
+ * rank are all O(log n) expected.
+ *
+ * Elements are ordered by the comparator, which must be consistent with equals and must not
+ * change while an element is queued. Not thread-safe.
+ */
+public class RankedQueue<E> {
+
+    private static final class Node<E> {
+        final E element;
+        final int weight;
+        int size = 1;
+        Node<E> left;
+        Node<E> right;
+
+        Node(E element, int weight) {
+            this.element = element;
+            this.weight = weight;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+
+    public RankedQueue(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Returns false if an equal element is already queued
+    public boolean add(E element) {
+        if (rank(element) >= 0) return false;
+        root = insert(root, new Node<>(element, random.nextInt()));
+        return true;
+    }
+
+    public boolean remove(E element) {
+        int before = size();
+        root = delete(root, element);
+        return size() < before;
+    }
+
+    public E first() {
+        Node<E> node = root;
+        if (node == null) return null;
+        while (node.left != null) node = node.left;
+        return node.element;
+    }
+
+    // Number of elements ahead of this one, or -1 if it is not queued
+    public int rank(E element) {
+        int ahead = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int order = comparator.compare(element, node.element);
+            if (order < 0) {
+                node = node.left;
+            } else if (order > 0) {
+                ahead += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return ahead + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> added) {
+        if (node == null) return added;
+        if (comparator.compare(added.element, node.element) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.weight > node.weight) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.weight > node.weight) node = rotateLeft(node);
+        }
+        return resize(node);
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null) return null;
+        int order = comparator.compare(element, node.element);
+        if (order < 0) {
+            node.left = delete(node.left, element);
+        } else if (order > 0) {
+            node.right = delete(node.right, element);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return resize(node);
+    }
+
+    // Every element of left orders before every element of right
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.weight > right.weight) {
+            left.right = merge(left.right, right);
+            return resize(left);
+        }
+        right.left = merge(left, right.left);
+        return resize(right);
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = resize(node);
+        return resize(pivot);
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = resize(node);
+        return resize(pivot);
+    }
+
+    private Node<E> resize(Node<E> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.lmsproject.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes flat rows straight to an output stream, either as NDJSON (one object per line)
+ * or as CSV with a header row. Nothing is buffered beyond the underlying stream buffer.
+ */
+public abstract class RowWriter implements Closeable {
+
+    protected final List<String> columns;
+
+    protected RowWriter(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public static RowWriter ndjson(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException {
+        return new NdjsonRowWriter(out, jsonFactory, columns);
+    }
+
+    public static RowWriter csv(OutputStream out, List<String> columns) throws IOException {
+        return new CsvRowWriter(out, columns);
+    }
+
+    // Values must be given in column order; Strings, Numbers, Booleans and nulls are supported
+    public abstract void write(Object... values) throws IOException;
+
+    private static class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out, JsonFactory jsonFactory, List<String> columns) throws IOException {
+            super(columns);
+            this.generator = jsonFactory.createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.flush();
+        }
+
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        private final BufferedWriter writer;
+
+        CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeLine(columns.toArray());
+        }
+
+        @Override
+        public void write(Object... values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(Csv.escape(values[i] != null ? values[i].toString() : null));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+
+    }
+
+}
@@ -1,7 +1,29 @@
 package com.example.lmsproject.utils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Utils {
 
+    // Upper bound for the number of values bound into one IN (...) clause
+    public static final int IN_CLAUSE_CHUNK = 1000;
+
+    // MySQL Connector/J only streams a result set row by row when the fetch size is Integer.MIN_VALUE
+    public static final String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    // Splits a list into consecutive sublists of at most size elements, e.g. to keep IN clauses bounded
+    public static <T> List<List<T>> chunks(List<T> list, int size){
+
+        List<List<T>> chunks = new ArrayList<>();
+
+        for(int i = 0; i < list.size(); i += size){
+            chunks.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+
+        return chunks;
+
+    }
+
     public static String getUUID(){
         return java.util.UUID.randomUUID().toString();
     }
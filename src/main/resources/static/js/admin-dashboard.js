@@ -75,16 +75,12 @@ class AdminDashboard {
 
     async loadDashboardData() {
         try {
-            const [students, courses, departments] = await Promise.all([
-                this.fetchJSON('/students'),
-                this.fetchJSON('/courses'),
-                this.fetchJSON('/departments')
-            ]);
+            const stats = JSON.parse(await this.fetchData('/admin/stats'));
 
-            document.getElementById('totalAdmins').textContent = '1';
-            document.getElementById('totalLecturers').textContent = '0';
-            document.getElementById('totalStudents').textContent = Array.isArray(students) ? students.length : 0;
-            document.getElementById('totalCourses').textContent = Array.isArray(courses) ? courses.length : 0;
+            document.getElementById('totalAdmins').textContent = stats.admins;
+            document.getElementById('totalLecturers').textContent = stats.lecturers;
+            document.getElementById('totalStudents').textContent = stats.students;
+            document.getElementById('totalCourses').textContent = stats.courses;
         } catch (error) {
             console.error('Error loading dashboard data:', error);
             this.showAlert('Error loading dashboard data', 'danger');
@@ -108,6 +104,20 @@ class AdminDashboard {
         return await response.json();
     }
 
+    // Follows nextCursor until the listing is exhausted
+    async fetchAllPages(endpoint) {
+        const items = [];
+        let cursor = null;
+        do {
+            const separator = endpoint.includes('?') ? '&' : '?';
+            const url = cursor ? `${endpoint}${separator}cursor=${encodeURIComponent(cursor)}` : endpoint;
+            const page = await this.fetchJSON(url);
+            items.push(...page.items);
+            cursor = page.nextCursor;
+        } while (cursor);
+        return items;
+    }
+
     async postData(endpoint, data) {
         const response = await fetch(`${this.baseURL}${endpoint}`, {
             method: 'POST',
@@ -191,8 +201,8 @@ class AdminDashboard {
     // Lecturer Management
     async loadLecturers() {
         try {
-            const data = await this.fetchData('/admin/getAllLecturers');
-            this.renderLecturersTable(this.parseLecturerData(data));
+            const lecturers = await this.fetchAllPages('/admin/getAllLecturers');
+            this.renderLecturersTable(lecturers);
             await this.loadDepartmentOptions('lecturerDepartment');
         } catch (error) {
             console.error('Error loading lecturers:', error);
@@ -200,18 +210,6 @@ class AdminDashboard {
         }
     }
 
-    parseLecturerData(dataString) {
-        try {
-            if (typeof dataString === 'string' && dataString.startsWith('[')) {
-                return JSON.parse(dataString);
-            }
-            return [];
-        } catch (error) {
-            console.error('Error parsing lecturer data:', error);
-            return [];
-        }
-    }
-
     renderLecturersTable(lecturers) {
         const tbody = document.getElementById('lecturersTableBody');
         tbody.innerHTML = '';
@@ -253,7 +251,7 @@ class AdminDashboard {
     // Student Management
     async loadStudents() {
         try {
-            const students = await this.fetchJSON('/students');
+            const students = await this.fetchAllPages('/students');
             this.renderStudentsTable(students);
             await this.loadDepartmentOptions('studentDepartment');
         } catch (error) {
@@ -301,7 +299,7 @@ class AdminDashboard {
     // Department Management
     async loadDepartments() {
         try {
-            const departments = await this.fetchJSON('/departments');
+            const departments = await this.fetchAllPages('/departments');
             this.renderDepartmentsTable(departments);
         } catch (error) {
             console.error('Error loading departments:', error);
@@ -337,7 +335,7 @@ class AdminDashboard {
     // Course Management
     async loadCourses() {
         try {
-            const courses = await this.fetchJSON('/courses');
+            const courses = await this.fetchAllPages('/courses');
             this.renderCoursesTable(courses);
             await this.loadDepartmentOptions('courseDepartment');
         } catch (error) {
@@ -351,7 +349,7 @@ class AdminDashboard {
         tbody.innerHTML = '';
 
         if (!Array.isArray(courses) || courses.length === 0) {
-            tbody.innerHTML = '<tr><td colspan="4" class="text-center">No courses found</td></tr>';
+            tbody.innerHTML = '<tr><td colspan="5" class="text-center">No courses found</td></tr>';
             return;
         }
 
@@ -363,6 +361,7 @@ class AdminDashboard {
                 <td>${course.courseId}</td>
                 <td>${course.courseName}</td>
                 <td>${departmentName}</td>
+                <td>${course.capacity ?? 'No limit'}</td>
                 <td>
                     <div class="action-buttons">
                         <button class="btn btn-warning btn-sm" onclick="dashboard.editCourse('${course.courseId}')">
@@ -381,27 +380,7 @@ class AdminDashboard {
     // Enrollment Management
     async loadEnrollments() {
         try {
-            const [students, courses] = await Promise.all([
-                this.fetchJSON('/students'),
-                this.fetchJSON('/courses')
-            ]);
-
-            const enrollmentPromises = students.map(student =>
-                this.fetchJSON(`/students/${student.userId}/courses`)
-                    .then(studentCourses =>
-                        studentCourses.map(course => ({
-                            enrollmentId: `${student.userId}-${course.courseId}`,
-                            student: student,
-                            course: course,
-                            enrollmentDate: new Date().toISOString().split('T')[0],
-                            status: 'ACTIVE'
-                        }))
-                    )
-                    .catch(() => [])
-            );
-
-            const enrollmentArrays = await Promise.all(enrollmentPromises);
-            const enrollments = enrollmentArrays.flat();
+            const enrollments = await this.fetchAllPages('/enrollments?size=500');
 
             this.renderEnrollmentsTable(enrollments);
             await this.loadStudentOptions('enrollmentStudent');
@@ -417,26 +396,23 @@ class AdminDashboard {
         tbody.innerHTML = '';
 
         if (!Array.isArray(enrollments) || enrollments.length === 0) {
-            tbody.innerHTML = '<tr><td colspan="5" class="text-center">No enrollments found</td></tr>';
+            tbody.innerHTML = '<tr><td colspan="3" class="text-center">No enrollments found</td></tr>';
             return;
         }
 
         enrollments.forEach(enrollment => {
             const row = document.createElement('tr');
-            const enrollmentDate = enrollment.enrollmentDate ? new Date(enrollment.enrollmentDate).toLocaleDateString() : 'N/A';
-            const statusBadgeClass = this.getStatusBadgeClass(enrollment.status);
+            const studentName = `${enrollment.firstName || ''} ${enrollment.lastName || ''}`.trim();
 
             row.innerHTML = `
-                <td>${enrollment.course ? enrollment.course.courseId : 'N/A'}</td>
-                <td>${enrollment.student ? enrollment.student.userId : 'N/A'}</td>
-                <td>${enrollmentDate}</td>
-                <td><span class="badge ${statusBadgeClass}">${enrollment.status || 'ACTIVE'}</span></td>
+                <td>${enrollment.courseId} - ${enrollment.courseName}</td>
+                <td>${enrollment.studentNumber || enrollment.studentId}${studentName ? ' - ' + studentName : ''}</td>
                 <td>
                     <div class="action-buttons">
-                        <button class="btn btn-info btn-sm" onclick="dashboard.viewEnrollmentDetails('${enrollment.student.userId}', '${enrollment.course.courseId}')">
+                        <button class="btn btn-info btn-sm" onclick="dashboard.viewEnrollmentDetails('${enrollment.studentId}', '${enrollment.courseId}')">
                             <i class="bi bi-eye"></i> View
                         </button>
-                        <button class="btn btn-danger btn-sm" onclick="dashboard.deleteEnrollment('${enrollment.student.userId}', '${enrollment.course.courseId}')">
+                        <button class="btn btn-danger btn-sm" onclick="dashboard.deleteEnrollment('${enrollment.studentId}', '${enrollment.courseId}')">
                             <i class="bi bi-trash"></i> Remove
                         </button>
                     </div>
@@ -446,19 +422,9 @@ class AdminDashboard {
         });
     }
 
-    getStatusBadgeClass(status) {
-        switch(status?.toUpperCase()) {
-            case 'ACTIVE': return 'bg-success';
-            case 'INACTIVE': return 'bg-secondary';
-            case 'COMPLETED': return 'bg-primary';
-            case 'DROPPED': return 'bg-danger';
-            default: return 'bg-success';
-        }
-    }
-
     async loadDepartmentOptions(selectId) {
         try {
-            const departments = await this.fetchJSON('/departments');
+            const departments = await this.fetchAllPages('/departments');
             const select = document.getElementById(selectId);
             select.innerHTML = '<option value="">Select Department</option>';
 
@@ -475,7 +441,7 @@ class AdminDashboard {
 
     async loadStudentOptions(selectId) {
         try {
-            const students = await this.fetchJSON('/students');
+            const students = await this.fetchAllPages('/students');
             const select = document.getElementById(selectId);
             select.innerHTML = '<option value="">Select Student</option>';
 
@@ -492,7 +458,7 @@ class AdminDashboard {
 
     async loadCourseOptions(selectId) {
         try {
-            const courses = await this.fetchJSON('/courses');
+            const courses = await this.fetchAllPages('/courses');
             const select = document.getElementById(selectId);
             select.innerHTML = '<option value="">Select Course</option>';
 
@@ -664,6 +630,7 @@ class AdminDashboard {
         if (course.department) {
             document.getElementById('courseDepartment').value = course.department.departmentId;
         }
+        document.getElementById('courseCapacity').value = course.capacity ?? '';
     }
 
     clearCourseForm() {
@@ -788,7 +755,9 @@ class AdminDashboard {
             courseName: document.getElementById('courseName').value,
             department: {
                 departmentId: document.getElementById('courseDepartment').value
-            }
+            },
+            // empty means no limit
+            capacity: document.getElementById('courseCapacity').value === '' ? null : Number(document.getElementById('courseCapacity').value)
         };
 
         try {
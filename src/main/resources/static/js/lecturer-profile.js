@@ -1,6 +1,9 @@
 // Lecturer Public Profile JavaScript
 
 document.addEventListener('DOMContentLoaded', function() {
+    // The server renders the profile into the page, only fetch it when that did not happen
+    if (document.body.dataset.rendered) return;
+
     // Get lecturer ID from URL path
     const lecturerId = getLecturerIdFromPath();
 
@@ -48,7 +51,7 @@ function displayLecturerProfile(data) {
         document.getElementById('lecturerIdBadge').textContent = data.lecturerID || 'N/A';
 
         // Show LIC badge if lecturer is LIC
-        if (data.isLIC === 'true') {
+        if (data.isLIC === true) {
             document.getElementById('licBadge').classList.remove('d-none');
             document.getElementById('licStatus').textContent = 'Yes';
             document.getElementById('positionValue').textContent = 'Lecturer in Charge (LIC)';
@@ -122,7 +125,7 @@ function displayCourses(coursesData) {
         let coursesHtml = '';
         courses.forEach((course, index) => {
             const courseName = typeof course === 'object' ? (course.courseName || course.name) : course;
-            const courseCode = typeof course === 'object' ? (course.courseCode || course.code) : `COURSE-${index + 1}`;
+            const courseCode = typeof course === 'object' ? (course.courseId || course.courseCode || course.code) : `COURSE-${index + 1}`;
 
             coursesHtml += `
                 <div class="course-item">
@@ -39,7 +39,7 @@ function displayLecturerInfo(data) {
 
         // Update LIC status
         const licBadge = document.getElementById('licBadge');
-        if (data.isLIC === 'true') {
+        if (data.isLIC === true) {
             licBadge.textContent = 'Lecturer in Charge (LIC)';
             licBadge.className = 'badge bg-success';
         } else {
@@ -100,7 +100,7 @@ function displayCourses(coursesData) {
         let coursesHtml = '';
         courses.forEach((course, index) => {
             const courseName = typeof course === 'object' ? (course.courseName || course.name) : course;
-            const courseCode = typeof course === 'object' ? (course.courseCode || course.code) : `COURSE-${index + 1}`;
+            const courseCode = typeof course === 'object' ? (course.courseId || course.courseCode || course.code) : `COURSE-${index + 1}`;
 
             coursesHtml += `
                 <div class="course-item">
@@ -41,9 +41,7 @@ function displayStudentProfile(data) {
         document.getElementById('gender').textContent = data.gender || 'Not provided';
 
         // Update department information
-        const departmentName = data.department ?
-            (data.department.departmentName || data.department.name || 'No Department') :
-            'No Department';
+        const departmentName = data.departmentName || 'No Department';
         document.getElementById('departmentBadge').textContent = departmentName;
 
         // Update courses
@@ -103,7 +101,7 @@ function displayCourses(coursesData) {
 
             if (typeof course === 'object' && course !== null) {
                 courseName = course.courseName || course.name || course.title || `Course ${index + 1}`;
-                courseCode = course.courseCode || course.code || course.id || `COURSE-${index + 1}`;
+                courseCode = course.courseId || course.courseCode || course.code || course.id || `COURSE-${index + 1}`;
             } else {
                 courseName = course.toString();
                 courseCode = `COURSE-${index + 1}`;
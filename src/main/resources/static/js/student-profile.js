@@ -1,6 +1,9 @@
 // Student Public Profile JavaScript
 
 document.addEventListener('DOMContentLoaded', function() {
+    // The server renders the profile into the page, only fetch it when that did not happen
+    if (document.body.dataset.rendered) return;
+
     // Get student ID from URL path
     const studentId = getStudentIdFromPath();
 
@@ -22,7 +25,7 @@ async function loadStudentProfile(studentId) {
     try {
         showLoading();
 
-        const response = await fetch(`/api/students/${studentId}`);
+        const response = await fetch(`/api/students/profile/${studentId}`);
 
         if (!response.ok) {
             throw new Error(`HTTP error! status: ${response.status}`);
@@ -48,7 +51,7 @@ function displayStudentProfile(data) {
         document.getElementById('studentIdBadge').textContent = data.studentId || 'N/A';
 
         // Update department badge
-        const departmentName = data.department ? data.department.departmentName || data.department.name || 'No Department' : 'No Department';
+        const departmentName = data.departmentName || 'No Department';
         document.getElementById('departmentBadge').textContent = departmentName;
 
         // Update contact information
@@ -125,7 +128,7 @@ function displayCourses(coursesData) {
 
             if (typeof course === 'object' && course !== null) {
                 courseName = course.courseName || course.name || course.title || `Course ${index + 1}`;
-                courseCode = course.courseCode || course.code || course.id || `COURSE-${index + 1}`;
+                courseCode = course.courseId || course.courseCode || course.code || `COURSE-${index + 1}`;
             } else {
                 courseName = course.toString();
                 courseCode = `COURSE-${index + 1}`;
@@ -0,0 +1,115 @@
+package com.example.lmsproject.auth;
+
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logins per second with and without the login cache, against the in-memory database. Not part of
+ * the regular build (the class name does not match the test includes); run it with
+ *   ./mvnw test -Dtest=LoginBenchmark
+ * Two figures per mode: whole form logins, which BCrypt dominates, and the user lookup alone, which
+ * is the part the cache takes off the database. Against MySQL over the network the lookup costs more.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class LoginBenchmark {
+
+	private static final int USERS = 200;
+	private static final long MEASURE_MILLIS = 5_000;
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+	@Autowired
+	private AuthenticationManager authenticationManager;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	@Autowired
+	private StudentService studentService;
+
+	@Test
+	void loginsPerSecondWithAndWithoutTheCache() throws Exception {
+
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			Student student = new Student();
+			student.setUsername("bench" + i);
+			student.setPassword("password-" + i);
+			student.setFirstName("Bench");
+			student.setLastName("User" + i);
+			students.add(student);
+		}
+		studentService.saveAllDetails(students);
+
+		Runnable login = () -> {
+			int i = ThreadLocalRandom.current().nextInt(USERS);
+			authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("bench" + i, "password-" + i));
+		};
+		Runnable lookup = () -> userDetailsService.loadUserByUsername("bench" + ThreadLocalRandom.current().nextInt(USERS));
+
+		// a TTL of 0 expires every entry as it is stored, so each lookup goes to the database
+		cacheTtl(0);
+		double loginsUncached = perSecond(login);
+		double lookupsUncached = perSecond(lookup);
+
+		cacheTtl(300);
+		double loginsCached = perSecond(login);
+		double lookupsCached = perSecond(lookup);
+
+		System.out.printf("%-16s %14s %14s%n", "", "logins/s", "lookups/s");
+		System.out.printf("%-16s %14.0f %14.0f%n", "without cache", loginsUncached, lookupsUncached);
+		System.out.printf("%-16s %14.0f %14.0f%n", "with cache", loginsCached, lookupsCached);
+		System.out.println("user cache " + userDetailsCache.stats());
+
+		assertTrue(lookupsCached > lookupsUncached);
+	}
+
+	private void cacheTtl(long seconds) {
+		ReflectionTestUtils.setField(userDetailsCache, "ttlSeconds", seconds);
+		ReflectionTestUtils.invokeMethod(userDetailsCache, "init");
+	}
+
+	// Runs the operation on THREADS threads, a warm-up second first, and returns operations per second
+	private static double perSecond(Runnable operation) throws InterruptedException {
+		run(operation, 1_000);
+		return run(operation, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+	}
+
+	private static long run(Runnable operation, long millis) throws InterruptedException {
+		long deadline = System.nanoTime() + millis * 1_000_000L;
+		long[] counts = new long[THREADS];
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int slot = t;
+			threads.add(Thread.ofPlatform().start(() -> {
+				while (System.nanoTime() < deadline) {
+					operation.run();
+					counts[slot]++;
+				}
+			}));
+		}
+		long total = 0;
+		for (int t = 0; t < THREADS; t++) {
+			threads.get(t).join();
+			total += counts[t];
+		}
+		return total;
+	}
+
+}
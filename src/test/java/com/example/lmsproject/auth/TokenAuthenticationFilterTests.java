@@ -0,0 +1,232 @@
+package com.example.lmsproject.auth;
+
+import com.example.lmsproject.repository.AggregateVersionRepository;
+import com.example.lmsproject.repository.RevokedTokenRepository;
+import com.example.lmsproject.service.AggregateVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TokenAuthenticationFilterTests {
+
+	private static final String SECRET = "test-secret-test-secret-test-secret";
+
+	// Stands in for the revoked_tokens table all nodes share
+	private static final class RevokedTokensStub extends RevokedTokenRepository {
+
+		final Map<String, Long> rows = new ConcurrentHashMap<>();
+		final AtomicInteger reads = new AtomicInteger();
+
+		@Override
+		public boolean insert(String jti, long expiresAt) {
+			return rows.putIfAbsent(jti, expiresAt) == null;
+		}
+
+		@Override
+		public Map<String, Long> findUnexpired(long now) {
+			reads.incrementAndGet();
+			return new HashMap<>(rows);
+		}
+
+		@Override
+		public int deleteExpired(long now) {
+			return 0;
+		}
+
+	}
+
+	// Stands in for the aggregate_versions table
+	private static final class VersionsStub extends AggregateVersionRepository {
+
+		final Map<String, Long> rows = new ConcurrentHashMap<>();
+		final AtomicInteger reads = new AtomicInteger();
+
+		@Override
+		public long find(String aggregate) {
+			reads.incrementAndGet();
+			return rows.getOrDefault(aggregate, 0L);
+		}
+
+		@Override
+		public void increment(Collection<String> aggregates) {
+			aggregates.forEach(aggregate -> rows.merge(aggregate, 1L, Long::sum));
+		}
+
+	}
+
+	private final RevokedTokensStub revokedTokens = new RevokedTokensStub();
+	private final VersionsStub versions = new VersionsStub();
+
+	private CustomUserDetailsService userDetailsService;
+	private TokenService tokenService;
+	private LmsUserDetails student;
+
+	@BeforeEach
+	void setUp() {
+		userDetailsService = mock(CustomUserDetailsService.class);
+		student = student(null);
+		tokenService = node();
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void authenticatesFromTokenWithoutLoadingUser() throws Exception {
+		String accessToken = tokenService.issue(student).accessToken();
+		int tableReads = revokedTokens.reads.get() + versions.reads.get();
+
+		Authentication authentication = filter(tokenService, accessToken);
+
+		assertNotNull(authentication);
+		assertEquals("stu42", authentication.getName());
+		assertTrue(authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_STUDENT")));
+		assertEquals("USER-0000042", ((TokenClaims) authentication.getDetails()).uid());
+		verifyNoInteractions(userDetailsService);
+		assertEquals(tableReads, revokedTokens.reads.get() + versions.reads.get());
+	}
+
+	@Test
+	void rejectsTamperedRevokedAndRefreshTokens() throws Exception {
+		TokenService.IssuedTokens tokens = tokenService.issue(student);
+		String accessToken = tokens.accessToken();
+		String tampered = accessToken.substring(0, accessToken.indexOf('.') - 2) + "xx" + accessToken.substring(accessToken.indexOf('.'));
+
+		assertNull(filter(tokenService, tampered));
+		assertNull(filter(tokenService, tokens.refreshToken()));
+
+		assertTrue(tokenService.revoke(accessToken));
+		assertNull(filter(tokenService, accessToken));
+	}
+
+	@Test
+	void refreshTokensAreSingleUse() {
+		when(userDetailsService.loadUserByUsername(anyString())).thenReturn(student);
+		String refreshToken = tokenService.issue(student).refreshToken();
+
+		assertNotNull(tokenService.refresh(refreshToken));
+		assertNull(tokenService.refresh(refreshToken));
+	}
+
+	@Test
+	void refreshTokensAreSingleUseAcrossNodes() {
+		when(userDetailsService.loadUserByUsername(anyString())).thenReturn(student);
+		TokenService otherNode = node();
+		String refreshToken = tokenService.issue(student).refreshToken();
+
+		assertNotNull(tokenService.refresh(refreshToken));
+		assertNull(otherNode.refresh(refreshToken));
+	}
+
+	@Test
+	void revocationReachesOtherNodesWithTheirNextSync() throws Exception {
+		TokenService otherNode = node();
+		String accessToken = otherNode.issue(student).accessToken();
+		assertNotNull(filter(otherNode, accessToken));
+
+		assertTrue(tokenService.revoke(accessToken));
+		sync(otherNode);
+		assertNull(filter(otherNode, accessToken));
+
+		// nothing new: the poll reads the version only
+		int reads = revokedTokens.reads.get();
+		sync(otherNode);
+		assertEquals(reads, revokedTokens.reads.get());
+	}
+
+	@Test
+	void refreshTokensIssuedBeforeAPasswordChangeAreRefused() {
+		String before = tokenService.issue(student).refreshToken();
+		when(userDetailsService.loadUserByUsername(anyString())).thenReturn(student(Instant.now()));
+		assertNull(tokenService.refresh(before));
+
+		when(userDetailsService.loadUserByUsername(anyString())).thenReturn(student(Instant.now().minusSeconds(5)));
+		assertNotNull(tokenService.refresh(tokenService.issue(student).refreshToken()));
+	}
+
+	@Test
+	void statelessModeNeedsASharedSecretOfAtLeast32Bytes() {
+		assertThrows(IllegalStateException.class, () -> node(true, ""));
+		assertThrows(IllegalStateException.class, () -> node(true, "too-short"));
+		assertThrows(IllegalStateException.class, () -> node(false, "too-short"));
+		assertNotNull(node(false, "").issue(student));
+		assertNotNull(node(true, SECRET).issue(student));
+	}
+
+	private TokenService node() {
+		return node(false, SECRET);
+	}
+
+	// One application node: its own in-memory revocation list over the shared tables
+	private TokenService node(boolean stateless, String secret) {
+		AggregateVersions aggregateVersions = new AggregateVersions();
+		ReflectionTestUtils.setField(aggregateVersions, "versionRepository", versions);
+		ReflectionTestUtils.setField(aggregateVersions, "maxEntries", 100);
+		ReflectionTestUtils.setField(aggregateVersions, "ttlMillis", 1000L);
+		ReflectionTestUtils.invokeMethod(aggregateVersions, "init");
+
+		TokenRevocationList revocationList = new TokenRevocationList();
+		ReflectionTestUtils.setField(revocationList, "revokedTokenRepository", revokedTokens);
+		ReflectionTestUtils.setField(revocationList, "aggregateVersions", aggregateVersions);
+		revocationList.sync();
+
+		TokenService node = new TokenService();
+		ReflectionTestUtils.setField(node, "revocationList", revocationList);
+		ReflectionTestUtils.setField(node, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(node, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(node, "stateless", stateless);
+		ReflectionTestUtils.setField(node, "secret", secret);
+		ReflectionTestUtils.setField(node, "accessTtlSeconds", 900L);
+		ReflectionTestUtils.setField(node, "refreshTtlSeconds", 3600L);
+		ReflectionTestUtils.invokeMethod(node, "init");
+		return node;
+	}
+
+	private static void sync(TokenService node) {
+		((TokenRevocationList) ReflectionTestUtils.getField(node, "revocationList")).sync();
+	}
+
+	private static LmsUserDetails student(Instant passwordChangedAt) {
+		return new LmsUserDetails("USER-0000042", "stu42", "", "STUDENT", passwordChangedAt,
+				List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+	}
+
+	private static Authentication filter(TokenService tokenService, String token) throws Exception {
+		SecurityContextHolder.clearContext();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/profile");
+		request.addHeader("Authorization", "Bearer " + token);
+		new TokenAuthenticationFilter(tokenService).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.example.lmsproject.auth;
+
+import com.example.lmsproject.repository.AggregateVersionRepository;
+import com.example.lmsproject.service.AggregateVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserDetailsCacheTests {
+
+	// Stands in for the aggregate_versions table both nodes share
+	private static final class TableStub extends AggregateVersionRepository {
+
+		final Map<String, Long> rows = new ConcurrentHashMap<>();
+
+		@Override
+		public long find(String aggregate) {
+			return rows.getOrDefault(aggregate, 0L);
+		}
+
+		@Override
+		public void increment(Collection<String> aggregates) {
+			aggregates.forEach(aggregate -> rows.merge(aggregate, 1L, Long::sum));
+		}
+
+	}
+
+	private final TableStub table = new TableStub();
+
+	// Stands in for the users table
+	private final Map<String, String> passwords = new ConcurrentHashMap<>(Map.of("stu42", "old-hash"));
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private UserDetailsCache node() {
+		AggregateVersions versions = new AggregateVersions();
+		ReflectionTestUtils.setField(versions, "versionRepository", table);
+		ReflectionTestUtils.setField(versions, "maxEntries", 100);
+		// the ETag cache would hide other nodes' writes for this long, logins must not
+		ReflectionTestUtils.setField(versions, "ttlMillis", 60_000L);
+		ReflectionTestUtils.invokeMethod(versions, "init");
+
+		UserDetailsCache cache = new UserDetailsCache();
+		ReflectionTestUtils.setField(cache, "aggregateVersions", versions);
+		ReflectionTestUtils.setField(cache, "maxEntries", 100);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+		ReflectionTestUtils.invokeMethod(cache, "init");
+		return cache;
+	}
+
+	private UserDetailsCache.CachedUser load(String username) {
+		loads.incrementAndGet();
+		String password = passwords.get(username);
+		return password == null ? null : new UserDetailsCache.CachedUser("USER-0000042", username, password, "STUDENT", null);
+	}
+
+	@Test
+	void repeatedLoginsAreServedFromTheCache() {
+		UserDetailsCache node = node();
+
+		node.get("stu42", this::load);
+		node.get("stu42", this::load);
+
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void passwordChangeOnAnotherNodeIsSeenByTheNextLogin() {
+		UserDetailsCache writer = node();
+		UserDetailsCache reader = node();
+		assertEquals("old-hash", reader.get("stu42", this::load).password());
+
+		passwords.put("stu42", "new-hash");
+		writer.evict("stu42");
+
+		assertEquals("new-hash", reader.get("stu42", this::load).password());
+		assertEquals(1L, reader.stats().get("stale"));
+	}
+
+	@Test
+	void deleteOnAnotherNodeIsSeenByTheNextLogin() {
+		UserDetailsCache writer = node();
+		UserDetailsCache reader = node();
+		reader.get("stu42", this::load);
+
+		passwords.remove("stu42");
+		writer.evict("stu42");
+
+		assertNull(reader.get("stu42", this::load));
+	}
+
+}
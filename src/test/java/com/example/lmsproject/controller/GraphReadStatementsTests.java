@@ -0,0 +1,134 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.StatementCounter;
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.service.BatchInserter;
+import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.service.DepartmentService;
+import com.example.lmsproject.service.IdSequenceService;
+import com.example.lmsproject.utils.IdPrefix;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statements Hibernate prepares per graph read, with the second level cache cold so every entity
+// comes from the database. The count must not grow with the number of students returned. Counted
+// on the request thread (StatementCounter), the session factory statistics also see scheduled jobs.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class GraphReadStatementsTests {
+
+	// the existence check and the one fetch of the whole graph
+	private static final int MAX_STATEMENTS = 2;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DepartmentService departmentService;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private IdSequenceService idSequenceService;
+
+	@Autowired
+	private BatchInserter batchInserter;
+
+	private record Cohort(Department department, Course course, List<Student> students) {
+	}
+
+	// Students are inserted directly so the setup does not spend minutes hashing passwords
+	private Cohort cohort(String name, int size) {
+		Department department = new Department();
+		department.setName(name);
+		department = departmentService.saveDetails(department);
+
+		Course course = new Course();
+		course.setCourseName(name + "-course");
+		course.setDepartment(department);
+		course = courseService.saveCourse(course);
+
+		Course second = new Course();
+		second.setCourseName(name + "-second");
+		second.setDepartment(department);
+		second = courseService.saveCourse(second);
+
+		List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, size);
+		List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, size);
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Student student = new Student();
+			student.setUserId(userIds.get(i));
+			student.setStudentId(studentIds.get(i));
+			student.setUsername(name + "-" + i);
+			student.setPassword("{noop}unused");
+			student.setRole("STUDENT");
+			student.setFirstName(name);
+			student.setLastName("Student" + i);
+			student.setDepartment(department);
+			students.add(student);
+		}
+		batchInserter.insertAll(students, Student::getDepartment, Student::setDepartment);
+
+		courseService.bulkEnroll(List.of(course.getCourseId(), second.getCourseId()), userIds);
+		return new Cohort(department, course, students);
+	}
+
+	private long statements(String url) throws Exception {
+		entityManagerFactory.getCache().evictAll();
+		long before = StatementCounter.count();
+
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+
+		return StatementCounter.count() - before;
+	}
+
+	@Test
+	void graphReadsIssueTheSameStatementsForTenAndAThousandStudents() throws Exception {
+		Cohort small = cohort("graph-small", 10);
+		Cohort large = cohort("graph-large", 1_000);
+
+		List<String> endpoints = List.of(
+				"/api/courses/%s/students",
+				"/api/departments/%s/students",
+				"/api/students/%s/courses");
+
+		for (String endpoint : endpoints) {
+			long few = statements(url(endpoint, small));
+			long many = statements(url(endpoint, large));
+			System.out.printf("%s: %d statements for 10 students, %d for 1000%n", endpoint, few, many);
+
+			assertEquals(few, many, endpoint);
+			assertTrue(many <= MAX_STATEMENTS, endpoint + " issued " + many + " statements");
+		}
+	}
+
+	private static String url(String endpoint, Cohort cohort) {
+		if (endpoint.startsWith("/api/courses")) return endpoint.formatted(cohort.course().getCourseId());
+		if (endpoint.startsWith("/api/departments")) return endpoint.formatted(cohort.department().getDepartmentId());
+		return endpoint.formatted(cohort.students().get(0).getUserId());
+	}
+
+}
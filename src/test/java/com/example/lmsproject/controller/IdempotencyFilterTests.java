@@ -0,0 +1,385 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.entity.IdempotencyKeyRow;
+import com.example.lmsproject.repository.IdempotencyKeyRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTests {
+
+	// Stands in for the idempotency_keys table all nodes share
+	private static final class KeysStub extends IdempotencyKeyRepository {
+
+		final Map<String, IdempotencyKeyRow> rows = new ConcurrentHashMap<>();
+
+		@Override
+		public boolean claim(String keyHash, String fingerprint, String bodyHash, long leaseUntil, long expiresAt) {
+			return rows.putIfAbsent(keyHash, new IdempotencyKeyRow(fingerprint, bodyHash, null, null, null, leaseUntil, expiresAt)) == null;
+		}
+
+		@Override
+		public IdempotencyKeyRow find(String keyHash) {
+			return rows.get(keyHash);
+		}
+
+		@Override
+		public synchronized boolean takeOver(String keyHash, String fingerprint, String bodyHash, long now, long leaseUntil, long expiresAt) {
+			IdempotencyKeyRow row = rows.get(keyHash);
+			if (row == null || row.status() != null || row.leaseUntil() >= now) return false;
+			rows.put(keyHash, new IdempotencyKeyRow(fingerprint, bodyHash, null, null, null, leaseUntil, expiresAt));
+			return true;
+		}
+
+		@Override
+		public void complete(String keyHash, int status, String contentType, byte[] body) {
+			rows.computeIfPresent(keyHash, (hash, row) -> new IdempotencyKeyRow(
+					row.fingerprint(), row.bodyHash(), status, contentType, body, row.leaseUntil(), row.expiresAt()));
+		}
+
+		@Override
+		public void release(String keyHash) {
+			rows.computeIfPresent(keyHash, (hash, row) -> row.status() == null ? null : row);
+		}
+
+		@Override
+		public int deleteExpired(String keyHash, long now) {
+			return rows.computeIfPresent(keyHash, (hash, row) -> row.expiresAt() < now ? null : row) == null ? 1 : 0;
+		}
+
+	}
+
+	private final KeysStub keys = new KeysStub();
+	private IdempotencyStore store;
+	private IdempotencyFilter filter;
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		store = store();
+		filter = new IdempotencyFilter(store);
+		authenticate("admin");
+	}
+
+	// One node's store; every node shares the same table
+	private IdempotencyStore store() {
+		IdempotencyStore store = new IdempotencyStore();
+		ReflectionTestUtils.setField(store, "keyRepository", keys);
+		ReflectionTestUtils.setField(store, "maxEntries", 100);
+		ReflectionTestUtils.setField(store, "maxTotalBytes", 1L << 20);
+		ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(store, "waitTimeoutSeconds", 5L);
+		ReflectionTestUtils.setField(store, "leaseSeconds", 60L);
+		ReflectionTestUtils.setField(store, "pollMillis", 10L);
+		ReflectionTestUtils.setField(store, "maxBodyBytes", 1024);
+		ReflectionTestUtils.setField(store, "maxRequestBytes", 1024);
+		ReflectionTestUtils.invokeMethod(store, "init");
+		return store;
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void retryIsAnsweredFromTheStoredResponse() throws Exception {
+		FilterChain chain = created();
+
+		MockHttpServletResponse first = post("/api/students", "k1", chain);
+		MockHttpServletResponse retry = post("/api/students", "k1", chain);
+
+		assertEquals(1, executions.get());
+		assertEquals(201, retry.getStatus());
+		assertEquals("application/json", retry.getContentType());
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED));
+		assertNull(first.getHeader(IdempotencyFilter.REPLAYED));
+	}
+
+	@Test
+	void keysArePerCallerAndPerRequest() throws Exception {
+		FilterChain chain = created();
+		post("/api/students", "k1", chain);
+
+		assertEquals(422, post("/api/admin/newLecturer", "k1", chain).getStatus());
+
+		authenticate("someone-else");
+		post("/api/students", "k1", chain);
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void keyReusedWithAnotherBodyIsRefused() throws Exception {
+		FilterChain chain = created();
+		MockHttpServletResponse first = post("/api/students", "k1", "{\"username\":\"a\"}", chain);
+
+		assertEquals(422, post("/api/students", "k1", "{\"username\":\"b\"}", chain).getStatus());
+		MockHttpServletResponse retry = post("/api/students", "k1", "{\"username\":\"a\"}", chain);
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void anonymousCallersAndAuthEndpointsAreLeftAlone() throws Exception {
+		FilterChain chain = created();
+
+		SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+				"key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+		post("/api/students", "k1", chain);
+		assertNull(post("/api/students", "k1", chain).getHeader(IdempotencyFilter.REPLAYED));
+
+		authenticate("admin");
+		post("/api/auth/token", "k2", chain);
+		assertNull(post("/api/auth/token", "k2", chain).getHeader(IdempotencyFilter.REPLAYED));
+
+		assertEquals(4, executions.get());
+	}
+
+	@Test
+	void responsesEvictedFromTheCacheAreReplayedFromTheTable() throws Exception {
+		// room for two cached responses
+		ReflectionTestUtils.setField(store, "maxTotalBytes", 1000L);
+		ReflectionTestUtils.invokeMethod(store, "init");
+		FilterChain chain = created();
+
+		post("/api/students", "k1", chain);
+		post("/api/students", "k2", chain);
+		post("/api/students", "k3", chain);
+
+		assertEquals("true", post("/api/students", "k3", chain).getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(0L, store.stats().get("replayedFromTable"));
+		assertEquals("true", post("/api/students", "k1", chain).getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(1L, store.stats().get("replayedFromTable"));
+		assertEquals(3, executions.get());
+	}
+
+	@Test
+	void serverErrorsAreNotStored() throws Exception {
+		FilterChain failing = (request, response) -> {
+			executions.incrementAndGet();
+			((HttpServletResponse) response).setStatus(503);
+		};
+
+		post("/api/courses/C1/enroll/S1", "k1", failing);
+		post("/api/courses/C1/enroll/S1", "k1", failing);
+
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void duplicateWaitsForTheFirstRequest() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain slow = (request, response) -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			created().doFilter(request, response);
+		};
+
+		CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> postQuietly("k1", slow));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> postQuietly("k1", slow));
+		Thread.sleep(100);
+		release.countDown();
+
+		assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+		assertEquals("true", duplicate.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void retryOnAnotherNodeIsAnsweredFromTheStoredResponse() throws Exception {
+		FilterChain chain = created();
+		MockHttpServletResponse first = post("/api/students", "k1", chain);
+
+		filter = new IdempotencyFilter(store());
+		MockHttpServletResponse retry = post("/api/students", "k1", chain);
+
+		assertEquals(1, executions.get());
+		assertEquals(201, retry.getStatus());
+		assertEquals(first.getContentAsString(), retry.getContentAsString());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED));
+	}
+
+	@Test
+	void serverErrorOnOneNodeLetsTheRetryRunOnAnother() throws Exception {
+		FilterChain failing = (request, response) -> {
+			executions.incrementAndGet();
+			((HttpServletResponse) response).setStatus(503);
+		};
+		post("/api/courses/C1/enroll/S1", "k1", failing);
+
+		filter = new IdempotencyFilter(store());
+		post("/api/courses/C1/enroll/S1", "k1", failing);
+
+		assertEquals(2, executions.get());
+		assertTrue(keys.rows.isEmpty());
+	}
+
+	@Test
+	void duplicateOnAnotherNodeWaitsForTheFirstRequest() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain slow = (request, response) -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			created().doFilter(request, response);
+		};
+
+		CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> postQuietly("k1", slow));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		IdempotencyFilter otherNode = new IdempotencyFilter(store());
+		CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> postQuietly(otherNode, "k1", slow));
+		Thread.sleep(100);
+		release.countDown();
+
+		assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+		assertEquals("true", duplicate.get(5, TimeUnit.SECONDS).getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void keyLeftRunningByAStoppedNodeIsTakenOver() throws Exception {
+		FilterChain chain = created();
+		post("/api/students", "k1", chain);
+		// as if the node that claimed it stopped before storing the response
+		keys.rows.replaceAll((hash, row) -> new IdempotencyKeyRow(row.fingerprint(), row.bodyHash(), null, null, null,
+				Instant.now().getEpochSecond() - 1, row.expiresAt()));
+
+		filter = new IdempotencyFilter(store());
+		MockHttpServletResponse retry = post("/api/students", "k1", chain);
+
+		assertEquals(2, executions.get());
+		assertNull(retry.getHeader(IdempotencyFilter.REPLAYED));
+		assertEquals(201, keys.rows.values().iterator().next().status());
+	}
+
+	@Test
+	void bodyCanBeReadAsynchronously() throws Exception {
+		FilterChain async = (request, response) -> {
+			executions.incrementAndGet();
+			ServletInputStream input = request.getInputStream();
+			ByteArrayOutputStream read = new ByteArrayOutputStream();
+			input.setReadListener(new ReadListener() {
+				@Override
+				public void onDataAvailable() throws IOException {
+					byte[] buffer = new byte[4];
+					int n;
+					while (input.isReady() && (n = input.read(buffer)) >= 0) read.write(buffer, 0, n);
+				}
+
+				@Override
+				public void onAllDataRead() {
+					((HttpServletResponse) response).setStatus(201);
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					((HttpServletResponse) response).setStatus(500);
+				}
+			});
+			response.getOutputStream().write(read.toByteArray());
+		};
+
+		MockHttpServletResponse response = post("/api/students", "k1", "{\"username\":\"async\"}", async);
+
+		assertEquals(201, response.getStatus());
+		assertEquals("{\"username\":\"async\"}", response.getContentAsString());
+	}
+
+	@Test
+	void requestsWithoutAKeyPassThrough() throws Exception {
+		FilterChain chain = created();
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/students");
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertEquals(2, executions.get());
+	}
+
+	// echoes the request body, so the controller is seen to get the body the filter read ahead
+	private FilterChain created() {
+		return (request, response) -> {
+			int run = executions.incrementAndGet();
+			String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+			((HttpServletResponse) response).setStatus(201);
+			response.setContentType("application/json");
+			response.getWriter().write("{\"run\":" + run + ",\"request\":\"" + body.replace("\"", "'") + "\"}");
+		};
+	}
+
+	private MockHttpServletResponse post(String uri, String key, FilterChain chain) throws Exception {
+		return post(uri, key, "{}", chain);
+	}
+
+	private MockHttpServletResponse post(String uri, String key, String body, FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	// the security context is per thread
+	private MockHttpServletResponse postQuietly(String key, FilterChain chain) {
+		return postQuietly(filter, key, chain);
+	}
+
+	private MockHttpServletResponse postQuietly(IdempotencyFilter filter, String key, FilterChain chain) {
+		authenticate("admin");
+		try {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/students");
+			request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+			request.setContentType("application/json");
+			request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(request, response, chain);
+			return response;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void authenticate(String name) {
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null, "ROLE_ADMIN"));
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.example.lmsproject.controller;
+
+import com.example.lmsproject.entity.Lecturer;
+import com.example.lmsproject.service.LecturerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class WebControllerTests {
+
+	private static final String EMAIL = "contact@lecturers.example";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private LecturerService lecturerService;
+
+	private String page(String lecturerId, RequestPostProcessor caller) throws Exception {
+		return mockMvc.perform(get("/lecturer/" + lecturerId).with(caller))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	@Test
+	void contactDetailsAreOnlyRenderedForLecturers() throws Exception {
+		Lecturer lecturer = new Lecturer();
+		lecturer.setUsername("web-contact");
+		lecturer.setPassword("password");
+		lecturer.setEmail(EMAIL);
+		String lecturerId = lecturerService.create(lecturer).getLecturerID();
+
+		assertFalse(page(lecturerId, anonymous()).contains(EMAIL));
+		assertFalse(page(lecturerId, user("student").roles("STUDENT")).contains(EMAIL));
+		assertFalse(page(lecturerId, user("admin").roles("ADMIN")).contains(EMAIL));
+		assertTrue(page(lecturerId, user("lecturer").roles("LECTURER")).contains(EMAIL));
+		// the cached public variant is not handed to a lecturer or the other way round
+		assertFalse(page(lecturerId, user("student").roles("STUDENT")).contains(EMAIL));
+	}
+
+}
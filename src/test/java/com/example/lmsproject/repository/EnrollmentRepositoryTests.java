@@ -0,0 +1,78 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.service.BatchInserter;
+import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.service.IdSequenceService;
+import com.example.lmsproject.utils.IdPrefix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class EnrollmentRepositoryTests {
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private IdSequenceService idSequenceService;
+
+	@Autowired
+	private BatchInserter batchInserter;
+
+	private List<String> students(String name, int count) {
+		List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, count);
+		List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, count);
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Student student = new Student();
+			student.setUserId(userIds.get(i));
+			student.setStudentId(studentIds.get(i));
+			student.setUsername(name + "-" + i);
+			student.setPassword("{noop}unused");
+			student.setRole("STUDENT");
+			students.add(student);
+		}
+		batchInserter.insertAll(students, Student::getDepartment, Student::setDepartment);
+		return userIds;
+	}
+
+	@Test
+	void insertAllReportsWhichPairsWereWrittenAcrossBatches() {
+		Course course = new Course();
+		course.setCourseName("insert-all-course");
+		String courseId = courseService.saveCourse(course).getCourseId();
+		List<String> students = students("insert-all", 4);
+
+		enrollmentRepository.insert(students.get(1), courseId);
+		enrollmentRepository.insert(students.get(2), courseId);
+
+		boolean[] inserted = enrollmentRepository.insertAll(List.of(
+				new String[]{students.get(0), courseId},
+				new String[]{students.get(1), courseId},
+				new String[]{students.get(2), courseId},
+				new String[]{students.get(3), courseId}), 3);
+
+		assertArrayEquals(new boolean[]{true, false, false, true}, inserted);
+		assertEquals(4, enrollmentRepository.countForCourse(courseId));
+	}
+
+	@Test
+	void insertAllOfNothingWritesNothing() {
+		assertEquals(0, enrollmentRepository.insertAll(List.of(), 10).length);
+	}
+
+}
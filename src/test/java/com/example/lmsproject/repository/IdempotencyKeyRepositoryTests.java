@@ -0,0 +1,70 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.entity.IdempotencyKeyRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class IdempotencyKeyRepositoryTests {
+
+	@Autowired
+	private IdempotencyKeyRepository keyRepository;
+
+	@Test
+	void keyIsClaimedOnceAndKeepsTheStoredResponse() {
+		assertTrue(keyRepository.claim("claim-once", "POST /api/students", "body", 100, 1_000));
+		assertFalse(keyRepository.claim("claim-once", "POST /api/students", "body", 100, 1_000));
+		assertNull(keyRepository.find("claim-once").status());
+
+		byte[] body = "{\"userId\":\"USER-0000001\"}".getBytes(StandardCharsets.UTF_8);
+		keyRepository.complete("claim-once", 201, "application/json", body);
+
+		IdempotencyKeyRow row = keyRepository.find("claim-once");
+		assertEquals(201, row.status());
+		assertEquals("application/json", row.contentType());
+		assertArrayEquals(body, row.body());
+		assertEquals("POST /api/students", row.fingerprint());
+
+		// a stored response is never released or taken over
+		keyRepository.release("claim-once");
+		assertFalse(keyRepository.takeOver("claim-once", "POST /api/other", "body", 200, 300, 1_000));
+		assertEquals(201, keyRepository.find("claim-once").status());
+	}
+
+	@Test
+	void runningKeyIsTakenOverOnlyOnceItsLeaseRanOut() {
+		keyRepository.claim("take-over", "POST /api/students", "body", 100, 1_000);
+
+		assertFalse(keyRepository.takeOver("take-over", "POST /api/students", "body", 100, 200, 1_000));
+		assertTrue(keyRepository.takeOver("take-over", "POST /api/students", "body", 101, 200, 1_000));
+		assertEquals(200, keyRepository.find("take-over").leaseUntil());
+
+		keyRepository.release("take-over");
+		assertNull(keyRepository.find("take-over"));
+	}
+
+	@Test
+	void expiredKeysAreDeleted() {
+		keyRepository.claim("expired", "POST /api/students", "body", 100, 1_000);
+		keyRepository.claim("unexpired", "POST /api/students", "body", 100, 5_000);
+
+		assertEquals(0, keyRepository.deleteExpired("expired", 1_000));
+		assertEquals(1, keyRepository.deleteExpired("expired", 1_001));
+		keyRepository.deleteExpired(1_001);
+
+		assertNull(keyRepository.find("expired"));
+		assertEquals(5_000, keyRepository.find("unexpired").expiresAt());
+	}
+
+}
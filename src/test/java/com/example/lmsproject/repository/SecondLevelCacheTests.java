@@ -0,0 +1,172 @@
+package com.example.lmsproject.repository;
+
+import com.example.lmsproject.StatementCounter;
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.Department;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.service.AggregateVersions;
+import com.example.lmsproject.service.BatchInserter;
+import com.example.lmsproject.service.CatalogReadModel;
+import com.example.lmsproject.service.CatalogSync;
+import com.example.lmsproject.service.CourseService;
+import com.example.lmsproject.service.DepartmentService;
+import com.example.lmsproject.service.IdSequenceService;
+import com.example.lmsproject.utils.IdPrefix;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statements with the second-level cache cold and warm, and eviction after a write made on another node
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class SecondLevelCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DepartmentService departmentService;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private IdSequenceService idSequenceService;
+
+	@Autowired
+	private BatchInserter batchInserter;
+
+	@Autowired
+	private CatalogReadModel catalogReadModel;
+
+	@Autowired
+	private CatalogSync catalogSync;
+
+	@Autowired
+	private DepartmentRepository departmentRepository;
+
+	@Autowired
+	private AggregateVersionRepository aggregateVersionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long statements(ThrowingRunnable request) throws Exception {
+		long before = StatementCounter.count();
+		request.run();
+		return StatementCounter.count() - before;
+	}
+
+	private interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+
+	// Every student in every course, with the students and courses spread over the departments
+	private void catalog(String name, int departments, int students) {
+		List<Department> saved = new ArrayList<>();
+		List<String> courseIds = new ArrayList<>();
+		for (int d = 0; d < departments; d++) {
+			Department department = new Department();
+			department.setName(name + "-department-" + d);
+			saved.add(departmentService.saveDetails(department));
+
+			Course course = new Course();
+			course.setCourseName(name + "-course-" + d);
+			course.setDepartment(saved.get(d));
+			courseIds.add(courseService.saveCourse(course).getCourseId());
+		}
+
+		List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, students);
+		List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, students);
+		List<Student> rows = new ArrayList<>();
+		for (int i = 0; i < students; i++) {
+			Student student = new Student();
+			student.setUserId(userIds.get(i));
+			student.setStudentId(studentIds.get(i));
+			student.setUsername(name + "-" + i);
+			student.setPassword("{noop}unused");
+			student.setRole("STUDENT");
+			student.setDepartment(saved.get(i % departments));
+			rows.add(student);
+		}
+		batchInserter.insertAll(rows, Student::getDepartment, Student::setDepartment);
+		courseService.bulkEnroll(courseIds, userIds);
+	}
+
+	// /api/students and the catalog build behind /api/courses fetch departments in the same statement
+	// (entity graphs), so the cache saves nothing there; lookups by ID skip the department select
+	@Test
+	void warmCacheIssuesNoMoreStatementsAndSavesTheDepartmentLookups() throws Exception {
+		catalog("l2-statements", 20, 100);
+		String studentId = jdbcTemplate.queryForObject(
+				"SELECT s.student_id FROM students s JOIN `user` u ON u.user_id = s.user_id WHERE u.username = ?",
+				String.class, "l2-statements-0");
+
+		ThrowingRunnable students = () -> mockMvc.perform(get("/api/students").param("size", "100")).andExpect(status().isOk());
+		ThrowingRunnable catalogBuild = catalogReadModel::refresh;
+		ThrowingRunnable profile = () -> mockMvc.perform(get("/api/students/profile/" + studentId)).andExpect(status().isOk());
+
+		entityManagerFactory.getCache().evictAll();
+		long studentsCold = statements(students);
+		long studentsWarm = statements(students);
+
+		entityManagerFactory.getCache().evictAll();
+		long catalogCold = statements(catalogBuild);
+		long catalogWarm = statements(catalogBuild);
+
+		entityManagerFactory.getCache().evictAll();
+		long profileCold = statements(profile);
+		long profileWarm = statements(profile);
+
+		System.out.printf("/api/students: %d statements cold, %d warm%n", studentsCold, studentsWarm);
+		System.out.printf("/api/courses catalog build: %d statements cold, %d warm%n", catalogCold, catalogWarm);
+		System.out.printf("/api/students/profile/{id}: %d statements cold, %d warm%n", profileCold, profileWarm);
+
+		assertTrue(studentsWarm <= studentsCold, "/api/students: " + studentsWarm + " warm, " + studentsCold + " cold");
+		assertTrue(catalogWarm <= catalogCold, "catalog build: " + catalogWarm + " warm, " + catalogCold + " cold");
+		assertTrue(profileWarm < profileCold, "profile: " + profileWarm + " warm, " + profileCold + " cold");
+	}
+
+	@Test
+	void writeOnAnotherNodeEvictsTheRegionsAndRebuildsTheCatalog() throws Exception {
+		Department department = new Department();
+		department.setName("l2-remote");
+		String departmentId = departmentService.saveDetails(department).getDepartmentId();
+		catalogSync.sync();
+
+		// cached on this node
+		assertEquals("l2-remote", departmentRepository.findById(departmentId).orElseThrow().getName());
+
+		// another node renames it and bumps the shared version
+		jdbcTemplate.update("UPDATE departments SET name = ? WHERE department_id = ?", "l2-renamed", departmentId);
+		aggregateVersionRepository.increment(List.of(AggregateVersions.DEPARTMENTS));
+
+		catalogSync.sync();
+
+		assertEquals("l2-renamed", departmentRepository.findById(departmentId).orElseThrow().getName());
+		String body = mockMvc.perform(get("/api/departments/" + departmentId)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		assertTrue(body.contains("l2-renamed"), body);
+	}
+
+}
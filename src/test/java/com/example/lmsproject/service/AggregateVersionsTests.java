@@ -0,0 +1,107 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.repository.AggregateVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AggregateVersionsTests {
+
+	// Stands in for the aggregate_versions table
+	private static final class TableStub extends AggregateVersionRepository {
+
+		final Map<String, Long> rows = new ConcurrentHashMap<>();
+		final List<List<String>> increments = new ArrayList<>();
+
+		@Override
+		public long find(String aggregate) {
+			return rows.getOrDefault(aggregate, 0L);
+		}
+
+		@Override
+		public void increment(Collection<String> aggregates) {
+			increments.add(List.copyOf(aggregates));
+			aggregates.forEach(aggregate -> rows.merge(aggregate, 1L, Long::sum));
+		}
+
+	}
+
+	private final TableStub table = new TableStub();
+
+	private AggregateVersions versions(long ttlMillis) {
+		AggregateVersions versions = new AggregateVersions();
+		ReflectionTestUtils.setField(versions, "versionRepository", table);
+		ReflectionTestUtils.setField(versions, "maxEntries", 100);
+		ReflectionTestUtils.setField(versions, "ttlMillis", ttlMillis);
+		ReflectionTestUtils.invokeMethod(versions, "init");
+		return versions;
+	}
+
+	@Test
+	void bumpChangesOnlyAffectedTags() {
+		AggregateVersions versions = versions(60_000);
+		String catalog = versions.catalogEtag();
+		String departments = versions.departmentsEtag();
+		String profile = versions.profileEtag("USER-0000001");
+
+		versions.bumpProfile("USER-0000002");
+		assertEquals(profile, versions.profileEtag("USER-0000001"));
+
+		versions.bump(AggregateVersions.COURSES);
+		assertNotEquals(catalog, versions.catalogEtag());
+		assertEquals(departments, versions.departmentsEtag());
+		// profiles embed course names
+		assertNotEquals(profile, versions.profileEtag("USER-0000001"));
+	}
+
+	@Test
+	void bumpInsideTransactionIsWrittenOnceBeforeCommit() {
+		AggregateVersions versions = versions(60_000);
+		String before = versions.departmentsEtag();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			versions.bump(AggregateVersions.DEPARTMENTS);
+			versions.bumpProfiles(List.of("USER-0000002", "USER-0000001"));
+			versions.bump(AggregateVersions.DEPARTMENTS);
+			assertEquals(before, versions.departmentsEtag());
+			assertEquals(0, table.increments.size());
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.beforeCommit(false);
+			}
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCommit();
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// one increment per aggregate, in sorted order
+		assertEquals(List.of(List.of("departments", "profile:USER-0000001", "profile:USER-0000002")), table.increments);
+		assertNotEquals(before, versions.departmentsEtag());
+	}
+
+	@Test
+	void tagsAgreeAcrossNodesAndFollowOtherNodesWrites() {
+		AggregateVersions nodeA = versions(60_000);
+		AggregateVersions nodeB = versions(0);
+		assertEquals(nodeA.catalogEtag(), nodeB.catalogEtag());
+
+		String before = nodeB.catalogEtag();
+		nodeA.bump(AggregateVersions.COURSES);
+		assertNotEquals(before, nodeB.catalogEtag());
+		assertEquals(nodeA.catalogEtag(), nodeB.catalogEtag());
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.utils.IdPrefix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Single enrolls per second through the per-request path and through group commit, against the
+ * in-memory database with the default 10-connection pool. Not part of the regular build (the class
+ * name does not match the test includes); run it with
+ *   ./mvnw test -Dtest=EnrollmentBatcherBenchmark
+ * Each mode enrolls every student in its own set of courses, so both do the same inserts. Against
+ * MySQL, where every commit waits for the redo log, the per-request path costs more.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class EnrollmentBatcherBenchmark {
+
+	private static final int STUDENTS = 200;
+	private static final int COURSES = 20;
+	private static final int CLIENTS = 200;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private IdSequenceService idSequenceService;
+
+	@Autowired
+	private BatchInserter batchInserter;
+
+	@Test
+	void enrollsPerSecondPerRequestAndWithGroupCommit() throws Exception {
+
+		List<String> userIds = students();
+
+		double perRequest = perSecond(userIds, courses("bench-single"), courseService::enrollStudentInCourse);
+
+		EnrollmentBatcher batcher = new EnrollmentBatcher();
+		ReflectionTestUtils.setField(batcher, "courseService", courseService);
+		ReflectionTestUtils.setField(batcher, "enabled", true);
+		ReflectionTestUtils.setField(batcher, "queueCapacity", 10_000);
+		ReflectionTestUtils.setField(batcher, "maxBatchSize", 200);
+		ReflectionTestUtils.setField(batcher, "lingerMillis", 2L);
+		ReflectionTestUtils.setField(batcher, "timeoutSeconds", 30L);
+		ReflectionTestUtils.setField(batcher, "retryAfterSeconds", 2L);
+		ReflectionTestUtils.invokeMethod(batcher, "init");
+		double grouped;
+		try {
+			grouped = perSecond(userIds, courses("bench-grouped"), batcher::enroll);
+		} finally {
+			ReflectionTestUtils.invokeMethod(batcher, "shutdown");
+		}
+
+		System.out.printf("%d enrolls from %d clients%n", STUDENTS * COURSES, CLIENTS);
+		System.out.printf("%-14s %10.0f enrolls/s%n", "per request", perRequest);
+		System.out.printf("%-14s %10.0f enrolls/s%n", "group commit", grouped);
+		System.out.println("group commit " + batcher.stats());
+	}
+
+	private double perSecond(List<String> userIds, List<String> courseIds,
+							 BiFunction<String, String, EnrollmentResult> enroll) throws Exception {
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<EnrollmentResult>> results = new ArrayList<>();
+		long elapsed;
+		try (ExecutorService clients = Executors.newFixedThreadPool(CLIENTS)) {
+			for (String courseId : courseIds) {
+				for (String userId : userIds) {
+					results.add(clients.submit(() -> {
+						start.await();
+						return enroll.apply(userId, courseId);
+					}));
+				}
+			}
+			long startedAt = System.nanoTime();
+			start.countDown();
+			for (Future<EnrollmentResult> result : results) {
+				assertEquals(EnrollmentResult.Status.ENROLLED, result.get().status());
+			}
+			elapsed = System.nanoTime() - startedAt;
+		}
+		return results.size() * 1e9 / elapsed;
+	}
+
+	private List<String> courses(String name) {
+		List<String> courseIds = new ArrayList<>();
+		for (int i = 0; i < COURSES; i++) {
+			Course course = new Course();
+			course.setCourseName(name + "-" + i);
+			courseIds.add(courseService.saveCourse(course).getCourseId());
+		}
+		return courseIds;
+	}
+
+	// Inserted directly so the setup does not spend minutes hashing passwords
+	private List<String> students() {
+		List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, STUDENTS);
+		List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, STUDENTS);
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < STUDENTS; i++) {
+			Student student = new Student();
+			student.setUserId(userIds.get(i));
+			student.setStudentId(studentIds.get(i));
+			student.setUsername("bench-enroll-" + i);
+			student.setPassword("{noop}unused");
+			student.setRole("STUDENT");
+			students.add(student);
+		}
+		batchInserter.insertAll(students, Student::getDepartment, Student::setDepartment);
+		return userIds;
+	}
+
+}
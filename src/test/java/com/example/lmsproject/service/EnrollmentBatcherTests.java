@@ -0,0 +1,98 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.EnrollmentChange;
+import com.example.lmsproject.entity.EnrollmentResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentBatcherTests {
+
+	// Applies batches with whatever the test plugs in
+	private static final class CourseServiceStub extends CourseService {
+
+		volatile Function<List<EnrollmentChange>, List<EnrollmentResult>> batch = CourseServiceStub::enrolled;
+
+		@Override
+		public List<EnrollmentResult> applyEnrollmentChanges(List<EnrollmentChange> changes) {
+			return batch.apply(changes);
+		}
+
+		static List<EnrollmentResult> enrolled(List<EnrollmentChange> changes) {
+			return changes.stream()
+					.map(change -> EnrollmentResult.of(EnrollmentResult.Status.ENROLLED, change.studentId(), change.courseId()))
+					.toList();
+		}
+
+	}
+
+	private final CourseServiceStub courseService = new CourseServiceStub();
+	private final EnrollmentBatcher batcher = batcher();
+
+	private EnrollmentBatcher batcher() {
+		EnrollmentBatcher batcher = new EnrollmentBatcher();
+		ReflectionTestUtils.setField(batcher, "courseService", courseService);
+		ReflectionTestUtils.setField(batcher, "enabled", true);
+		ReflectionTestUtils.setField(batcher, "queueCapacity", 100);
+		ReflectionTestUtils.setField(batcher, "maxBatchSize", 10);
+		ReflectionTestUtils.setField(batcher, "lingerMillis", 1L);
+		ReflectionTestUtils.setField(batcher, "timeoutSeconds", 1L);
+		ReflectionTestUtils.setField(batcher, "retryAfterSeconds", 2L);
+		ReflectionTestUtils.invokeMethod(batcher, "init");
+		return batcher;
+	}
+
+	@AfterEach
+	void stop() {
+		ReflectionTestUtils.invokeMethod(batcher, "shutdown");
+	}
+
+	@Test
+	void writerSurvivesAFailureOutsideTheFallback() {
+		// not a RuntimeException, so the one-by-one fallback does not catch it
+		courseService.batch = changes -> {
+			throw new StackOverflowError("batch");
+		};
+		assertThrows(IllegalStateException.class, () -> batcher.enroll("USER-0000001", "CRS-0000001"));
+
+		courseService.batch = changes -> List.of();
+		assertThrows(IndexOutOfBoundsException.class, () -> batcher.enroll("USER-0000002", "CRS-0000001"));
+
+		courseService.batch = CourseServiceStub::enrolled;
+		assertEquals(EnrollmentResult.Status.ENROLLED, batcher.enroll("USER-0000003", "CRS-0000001").status());
+	}
+
+	@Test
+	void callerWhoseChangeWasTakenStopsWaitingAfterTheTimeout() throws InterruptedException {
+		CountDownLatch taken = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		courseService.batch = changes -> {
+			taken.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return CourseServiceStub.enrolled(changes);
+		};
+
+		long startedAt = System.nanoTime();
+		assertThrows(EnrollmentPendingException.class, () -> batcher.enroll("USER-0000001", "CRS-0000001"));
+		long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+		assertTrue(taken.await(0, TimeUnit.SECONDS));
+		assertTrue(waitedMillis < 5_000, waitedMillis + " ms");
+		assertEquals(1L, batcher.stats().get("timedOut"));
+		release.countDown();
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.BulkEnrollmentResult;
+import com.example.lmsproject.entity.Course;
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.utils.IdPrefix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Seat limits against a real database: many enrollers racing for the last seats of one course,
+// a capacity lowered below the seats already taken, and negative capacities refused
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class EnrollmentCapacityTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CourseService courseService;
+
+	@Autowired
+	private SeatReservations seatReservations;
+
+	@Autowired
+	private EnrollmentRepository enrollmentRepository;
+
+	@Autowired
+	private IdSequenceService idSequenceService;
+
+	@Autowired
+	private BatchInserter batchInserter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Course course(String name, Integer capacity) {
+		Course course = new Course();
+		course.setCourseName(name);
+		course.setCapacity(capacity);
+		return courseService.saveCourse(course);
+	}
+
+	// Students are inserted directly so the setup does not spend minutes hashing passwords
+	private List<String> students(String name, int count) {
+		List<String> userIds = idSequenceService.nextIds(IdPrefix.USER, count);
+		List<String> studentIds = idSequenceService.nextIds(IdPrefix.STUDENT, count);
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Student student = new Student();
+			student.setUserId(userIds.get(i));
+			student.setStudentId(studentIds.get(i));
+			student.setUsername(name + "-" + i);
+			student.setPassword("{noop}unused");
+			student.setRole("STUDENT");
+			students.add(student);
+		}
+		batchInserter.insertAll(students, Student::getDepartment, Student::setDepartment);
+		return userIds;
+	}
+
+	private int seatsTaken(String courseId) {
+		return jdbcTemplate.queryForObject("SELECT seats_taken FROM courses WHERE course_id = ?", Integer.class, courseId);
+	}
+
+	@Test
+	void thousandConcurrentEnrollersNeverOverbook() throws Exception {
+		int capacity = 100;
+		int enrollers = 1_000;
+		String courseId = course("capacity-race", capacity).getCourseId();
+		List<String> userIds = students("capacity-race", enrollers);
+
+		// one platform thread per enroller, released together
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<EnrollmentResult>> results = new ArrayList<>();
+		long elapsed;
+		try (ExecutorService executor = Executors.newFixedThreadPool(enrollers)) {
+			for (String userId : userIds) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return courseService.enrollStudentInCourse(userId, courseId);
+				}));
+			}
+			long startedAt = System.nanoTime();
+			start.countDown();
+			for (Future<EnrollmentResult> result : results) result.get();
+			elapsed = System.nanoTime() - startedAt;
+		}
+
+		Map<EnrollmentResult.Status, Integer> statuses = new EnumMap<>(EnrollmentResult.Status.class);
+		for (Future<EnrollmentResult> result : results) statuses.merge(result.get().status(), 1, Integer::sum);
+		System.out.printf("%d enrollers, capacity %d: %s in %d ms (%.0f enrollments/s), %s%n",
+				enrollers, capacity, statuses, elapsed / 1_000_000, enrollers * 1e9 / elapsed, seatReservations.stats());
+
+		assertEquals(capacity, statuses.get(EnrollmentResult.Status.ENROLLED));
+		assertEquals(enrollers - capacity, statuses.get(EnrollmentResult.Status.COURSE_FULL));
+		assertEquals(capacity, enrollmentRepository.countForCourse(courseId));
+		assertEquals(capacity, seatsTaken(courseId));
+	}
+
+	@Test
+	void capacityLoweredBelowTheSeatsTakenAdmitsNobody() {
+		Course course = course("capacity-lowered", 5);
+		String courseId = course.getCourseId();
+		List<String> userIds = students("capacity-lowered", 7);
+		assertEquals(5, courseService.bulkEnroll(List.of(courseId), userIds.subList(0, 5)).enrolled());
+
+		course.setCapacity(2);
+		courseService.updateCourse(courseId, course);
+
+		assertEquals(-3, enrollmentRepository.lockSeatsLeft(courseId));
+		assertEquals(EnrollmentResult.Status.COURSE_FULL,
+				courseService.enrollStudentInCourse(userIds.get(5), courseId).status());
+		BulkEnrollmentResult bulk = courseService.bulkEnroll(List.of(courseId), userIds.subList(5, 7));
+		assertEquals(0, bulk.enrolled());
+		assertTrue(bulk.results().stream().allMatch(result -> result.status() == EnrollmentResult.Status.COURSE_FULL),
+				bulk.results().toString());
+		assertEquals(5, enrollmentRepository.countForCourse(courseId));
+		assertEquals(5, seatsTaken(courseId));
+	}
+
+	@Test
+	void negativeCapacityIsRefused() throws Exception {
+		String courseId = course("capacity-negative", 10).getCourseId();
+
+		mockMvc.perform(post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"courseName\":\"capacity-negative-new\",\"capacity\":-1}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(put("/api/courses/" + courseId).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"courseName\":\"capacity-negative\",\"capacity\":-1}"))
+				.andExpect(status().isBadRequest());
+
+		assertEquals(10, jdbcTemplate.queryForObject("SELECT capacity FROM courses WHERE course_id = ?", Integer.class, courseId));
+		assertEquals(0, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM courses WHERE course_name = ?", Integer.class, "capacity-negative-new"));
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.EnrollmentChange;
+import com.example.lmsproject.entity.EnrollmentResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.lmsproject.entity.EnrollmentResult.Status.ALREADY_ENROLLED;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.COURSE_FULL;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.COURSE_NOT_FOUND;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.DROPPED;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.ENROLLED;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.NOT_ENROLLED;
+import static com.example.lmsproject.entity.EnrollmentResult.Status.STUDENT_NOT_FOUND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentReplayTests {
+
+	private static final Set<String> STUDENTS = Set.of("S1", "S2", "S3");
+
+	private static EnrollmentChange enroll(String studentId, String courseId) {
+		return new EnrollmentChange(EnrollmentChange.Action.ENROLL, studentId, courseId);
+	}
+
+	private static EnrollmentChange drop(String studentId, String courseId) {
+		return new EnrollmentChange(EnrollmentChange.Action.DROP, studentId, courseId);
+	}
+
+	private static List<EnrollmentResult.Status> statuses(List<EnrollmentResult> results) {
+		return results.stream().map(EnrollmentResult::status).toList();
+	}
+
+	private static List<String> pairs(List<String[]> pairs) {
+		return pairs.stream().map(pair -> pair[0] + "/" + pair[1]).sorted().toList();
+	}
+
+	@Test
+	void enrollThenDropInOneBatchWritesNothing() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 1), Set.of());
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S1", "C1"), enroll("S1", "C1"), drop("S1", "C1"), drop("S1", "C1")));
+
+		assertEquals(List.of(ENROLLED, ALREADY_ENROLLED, DROPPED, NOT_ENROLLED), statuses(results));
+		assertTrue(replay.inserts().isEmpty());
+		assertTrue(replay.deletes().isEmpty());
+	}
+
+	@Test
+	void dropThenEnrollOfAnExistingEnrollmentWritesNothing() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 0), Set.of());
+		replay.enrolled("S1", "C1");
+
+		List<EnrollmentResult> results = replay.apply(List.of(drop("S1", "C1"), enroll("S1", "C1")));
+
+		assertEquals(List.of(DROPPED, ENROLLED), statuses(results));
+		assertTrue(replay.inserts().isEmpty());
+		assertTrue(replay.deletes().isEmpty());
+	}
+
+	@Test
+	void capacityRunsOutMidBatch() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 2), Set.of());
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S1", "C1"), enroll("S2", "C1"), enroll("S3", "C1")));
+
+		assertEquals(List.of(ENROLLED, ENROLLED, COURSE_FULL), statuses(results));
+		assertEquals(List.of("S1/C1", "S2/C1"), pairs(replay.inserts()));
+	}
+
+	@Test
+	void dropFreesASeatForALaterEnrollInTheBatch() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 0), Set.of());
+		replay.enrolled("S1", "C1");
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S2", "C1"), drop("S1", "C1"), enroll("S2", "C1"), enroll("S3", "C1")));
+
+		assertEquals(List.of(COURSE_FULL, DROPPED, ENROLLED, COURSE_FULL), statuses(results));
+		assertEquals(List.of("S2/C1"), pairs(replay.inserts()));
+		assertEquals(List.of("S1/C1"), pairs(replay.deletes()));
+	}
+
+	@Test
+	void waitlistedCourseTakesNoEnrollmentsAndKeepsFreedSeatsForTheLine() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 1), Set.of("C1"));
+		replay.enrolled("S1", "C1");
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S2", "C1"), drop("S1", "C1"), enroll("S3", "C1")));
+
+		assertEquals(List.of(COURSE_FULL, DROPPED, COURSE_FULL), statuses(results));
+		assertTrue(replay.inserts().isEmpty());
+		assertEquals(List.of("S1/C1"), pairs(replay.deletes()));
+	}
+
+	@Test
+	void dropFromAnOverCapacityCourseFreesNoSeat() {
+		// capacity lowered below the seats taken: two too many
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", -2), Set.of());
+		replay.enrolled("S1", "C1");
+
+		List<EnrollmentResult> results = replay.apply(List.of(drop("S1", "C1"), enroll("S2", "C1")));
+
+		assertEquals(List.of(DROPPED, COURSE_FULL), statuses(results));
+		assertTrue(replay.inserts().isEmpty());
+	}
+
+	@Test
+	void courseWithoutCapacityNeverFills() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", Integer.MAX_VALUE), Set.of());
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S1", "C1"), drop("S1", "C1"), enroll("S2", "C1"), enroll("S3", "C1")));
+
+		assertEquals(List.of(ENROLLED, DROPPED, ENROLLED, ENROLLED), statuses(results));
+		assertEquals(List.of("S2/C1", "S3/C1"), pairs(replay.inserts()));
+	}
+
+	@Test
+	void unknownStudentOrCourseChangesNothing() {
+		EnrollmentReplay replay = new EnrollmentReplay(STUDENTS, Set.of("C1"), Map.of("C1", 1), Set.of());
+
+		List<EnrollmentResult> results = replay.apply(List.of(
+				enroll("S9", "C1"), enroll("S1", "C9"), drop("S9", "C9"), enroll("S1", "C1")));
+
+		assertEquals(List.of(STUDENT_NOT_FOUND, COURSE_NOT_FOUND, STUDENT_NOT_FOUND, ENROLLED), statuses(results));
+		assertEquals(List.of("S1/C1"), pairs(replay.inserts()));
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.EnrollmentResult;
+import com.example.lmsproject.repository.CourseRepository;
+import com.example.lmsproject.repository.EnrollmentRepository;
+import com.example.lmsproject.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatReservationsTests {
+
+	// Stands in for courses.seats_taken and capacity of one course
+	private static final class SeatsStub extends EnrollmentRepository {
+
+		int capacity;
+		int seatsTaken;
+		int takeSeatCalls;
+		boolean duplicateOnInsert;
+
+		@Override
+		public boolean takeSeat(String courseId) {
+			takeSeatCalls++;
+			if (seatsTaken >= capacity) return false;
+			seatsTaken++;
+			return true;
+		}
+
+		@Override
+		public void releaseSeat(String courseId) {
+			if (seatsTaken > 0) seatsTaken--;
+		}
+
+		@Override
+		public int lockSeatsLeft(String courseId) {
+			return capacity - seatsTaken;
+		}
+
+		@Override
+		public boolean exists(String studentId, String courseId) {
+			return false;
+		}
+
+		@Override
+		public void insert(String studentId, String courseId) {
+			if (duplicateOnInsert) throw new DuplicateKeyException("uk_student_enrollments_student_course");
+		}
+
+	}
+
+	private static final class NoWaitlist extends WaitlistService {
+
+		@Override
+		public boolean hasWaiting(String courseId) {
+			return false;
+		}
+
+	}
+
+	private final SeatsStub seats = new SeatsStub();
+
+	private SeatReservations reservations(long fullCourseTtlMillis) {
+		SeatReservations reservations = new SeatReservations();
+		ReflectionTestUtils.setField(reservations, "enrollmentRepository", seats);
+		ReflectionTestUtils.setField(reservations, "fullCourseTtlMillis", fullCourseTtlMillis);
+		return reservations;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T existing(Class<T> repository) {
+		return (T) Proxy.newProxyInstance(SeatReservationsTests.class.getClassLoader(), new Class<?>[]{repository},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "existsById" -> true;
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@Test
+	void fullCourseIsRejectedWithoutTheDatabaseUntilTheMarkExpires() throws InterruptedException {
+		SeatReservations reservations = reservations(50);
+		seats.capacity = 1;
+
+		assertTrue(reservations.reserve("CRS-0000001"));
+		assertFalse(reservations.reserve("CRS-0000001"));
+		assertEquals(2, seats.takeSeatCalls);
+
+		assertFalse(reservations.reserve("CRS-0000001"));
+		assertEquals(2, seats.takeSeatCalls);
+		assertEquals(1L, reservations.stats().get("fastRejected"));
+		assertEquals(1L, reservations.stats().get("coursesMarkedFull"));
+
+		Thread.sleep(60);
+		assertFalse(reservations.reserve("CRS-0000001"));
+		assertEquals(3, seats.takeSeatCalls);
+	}
+
+	@Test
+	void releaseClearsTheFullMark() {
+		SeatReservations reservations = reservations(60_000);
+		seats.capacity = 1;
+		reservations.reserve("CRS-0000001");
+		assertFalse(reservations.reserve("CRS-0000001"));
+
+		reservations.release("CRS-0000001");
+
+		assertTrue(reservations.reserve("CRS-0000001"));
+		assertEquals(1, seats.seatsTaken);
+	}
+
+	@Test
+	void duplicateEnrollmentGivesTheSeatBack() {
+		seats.capacity = 1;
+		seats.duplicateOnInsert = true;
+
+		CourseService courseService = new CourseService();
+		ReflectionTestUtils.setField(courseService, "studentRepository", existing(StudentRepository.class));
+		ReflectionTestUtils.setField(courseService, "courseRepository", existing(CourseRepository.class));
+		ReflectionTestUtils.setField(courseService, "enrollmentRepository", seats);
+		ReflectionTestUtils.setField(courseService, "waitlistService", new NoWaitlist());
+		ReflectionTestUtils.setField(courseService, "seatReservations", reservations(60_000));
+
+		EnrollmentResult result = courseService.enrollStudentInCourse("USER-0000001", "CRS-0000001");
+
+		assertEquals(EnrollmentResult.Status.ALREADY_ENROLLED, result.status());
+		assertEquals(0, seats.seatsTaken);
+	}
+
+	// capacity lowered below the seats already taken
+	@Test
+	void negativeSeatsLeftTakesNoSeat() {
+		SeatReservations reservations = reservations(60_000);
+		seats.capacity = 2;
+		seats.seatsTaken = 5;
+
+		assertEquals(-3, reservations.lockSeatsLeft("CRS-0000001"));
+		assertFalse(reservations.reserve("CRS-0000001"));
+		assertEquals(5, seats.seatsTaken);
+
+		seats.capacity = 6;
+		reservations.capacityChanged("CRS-0000001");
+		assertTrue(reservations.reserve("CRS-0000001"));
+		assertFalse(reservations.reserve("CRS-0000001"));
+		assertEquals(6, seats.seatsTaken);
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.example.lmsproject.service;
+
+import com.example.lmsproject.entity.Student;
+import com.example.lmsproject.entity.StudentDirectoryEntry;
+import com.example.lmsproject.repository.AggregateVersionRepository;
+import com.example.lmsproject.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StudentDirectoryTests {
+
+	// Stands in for the aggregate_versions table
+	private static final class VersionsStub extends AggregateVersionRepository {
+
+		final Map<String, Long> rows = new ConcurrentHashMap<>();
+
+		@Override
+		public long find(String aggregate) {
+			return rows.getOrDefault(aggregate, 0L);
+		}
+
+		@Override
+		public void increment(Collection<String> aggregates) {
+			aggregates.forEach(aggregate -> rows.merge(aggregate, 1L, Long::sum));
+		}
+
+	}
+
+	// The students table, as another node sees it
+	private final Map<String, Student> students = new ConcurrentHashMap<>();
+	private final AtomicInteger queries = new AtomicInteger();
+	private final VersionsStub versionTable = new VersionsStub();
+	private final AggregateVersions versions = versions();
+	private final StudentDirectory directory = directory();
+
+	private AggregateVersions versions() {
+		AggregateVersions versions = new AggregateVersions();
+		ReflectionTestUtils.setField(versions, "versionRepository", versionTable);
+		ReflectionTestUtils.setField(versions, "maxEntries", 100);
+		// what this node sees once lms.versions.ttl-ms has passed
+		ReflectionTestUtils.setField(versions, "ttlMillis", 0L);
+		ReflectionTestUtils.invokeMethod(versions, "init");
+		return versions;
+	}
+
+	private StudentDirectory directory() {
+		StudentRepository repository = (StudentRepository) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[]{StudentRepository.class}, (proxy, method, args) -> {
+					queries.incrementAndGet();
+					return switch (method.getName()) {
+						case "findByStudentId" -> students.values().stream()
+								.filter(student -> student.getStudentId().equals(args[0])).findFirst().orElse(null);
+						case "findByUsername" -> students.values().stream()
+								.filter(student -> student.getUsername().equals(args[0])).findFirst().orElse(null);
+						default -> throw new UnsupportedOperationException(method.getName());
+					};
+				});
+
+		StudentDirectory directory = new StudentDirectory();
+		ReflectionTestUtils.setField(directory, "studentRepository", repository);
+		ReflectionTestUtils.setField(directory, "aggregateVersions", versions);
+		ReflectionTestUtils.setField(directory, "capacity", 100);
+		ReflectionTestUtils.setField(directory, "table", ReflectionTestUtils.invokeMethod(directory, "newTable"));
+		return directory;
+	}
+
+	private Student student(String userId, String studentId, String username) {
+		Student student = new Student();
+		student.setUserId(userId);
+		student.setStudentId(studentId);
+		student.setUsername(username);
+		student.setFirstName("First");
+		students.put(userId, student);
+		return student;
+	}
+
+	@Test
+	void entryWrittenOnThisNodeIsReadOnceThenServedFromTheDirectory() {
+		directory.put(student("USER-0000001", "STD-0000001", "alice"));
+
+		assertEquals("alice", directory.findByStudentId("STD-0000001").username());
+		assertEquals(1, queries.get());
+
+		assertEquals("alice", directory.findByStudentId("STD-0000001").username());
+		assertEquals("alice", directory.findByUsername("alice").username());
+		assertEquals(1, queries.get());
+	}
+
+	@Test
+	void studentChangedOnAnotherNodeIsReadAgain() {
+		directory.put(student("USER-0000001", "STD-0000001", "alice"));
+		directory.findByStudentId("STD-0000001");
+
+		students.get("USER-0000001").setFirstName("Changed");
+		students.get("USER-0000001").setUsername("alice2");
+		versions.bumpProfile("USER-0000001");
+
+		StudentDirectoryEntry entry = directory.findByStudentId("STD-0000001");
+		assertEquals("Changed", entry.firstName());
+		assertEquals("alice2", entry.username());
+		assertNull(directory.findByUsername("alice"));
+		assertEquals("alice2", directory.findByUsername("alice2").username());
+	}
+
+	@Test
+	void studentDeletedOnAnotherNodeIsDropped() {
+		directory.put(student("USER-0000001", "STD-0000001", "alice"));
+		directory.findByStudentId("STD-0000001");
+
+		students.remove("USER-0000001");
+		versions.bumpProfile("USER-0000001");
+
+		assertNull(directory.findByStudentId("STD-0000001"));
+		int afterDrop = queries.get();
+		assertNull(directory.findByStudentId("STD-0000001"));
+		assertEquals(afterDrop, queries.get());
+	}
+
+	@Test
+	void usernameTakenOverByAnotherStudentIsNotServedUnderTheOldEntry() {
+		directory.put(student("USER-0000001", "STD-0000001", "alice"));
+		directory.findByUsername("alice");
+
+		students.get("USER-0000001").setUsername("alice-old");
+		versions.bumpProfile("USER-0000001");
+		student("USER-0000002", "STD-0000002", "alice");
+
+		assertEquals("STD-0000002", directory.findByUsername("alice").studentId());
+		// dropped, so StudentService reads it from the database
+		assertNull(directory.findByStudentId("STD-0000001"));
+	}
+
+}
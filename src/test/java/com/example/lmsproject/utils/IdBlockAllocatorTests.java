@@ -0,0 +1,79 @@
+package com.example.lmsproject.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdBlockAllocatorTests {
+
+	// Stands in for the id_sequences row: the row lock serializes reservations across nodes
+	private static class SharedSequenceRow implements IdBlockAllocator.BlockSource {
+
+		private long nextValue = 1;
+
+		@Override
+		public synchronized long reserve(int size) {
+			long first = nextValue;
+			nextValue += size;
+			return first;
+		}
+
+	}
+
+	@Test
+	void noDuplicatesAcrossThreadsAndInstances() throws Exception {
+		SharedSequenceRow row = new SharedSequenceRow();
+		IdBlockAllocator[] nodes = {
+				new IdBlockAllocator(row, 50),
+				new IdBlockAllocator(row, 50),
+				new IdBlockAllocator(row, 7)
+		};
+
+		int threads = 24;
+		int idsPerThread = 5_000;
+		Set<String> issued = ConcurrentHashMap.newKeySet();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				IdBlockAllocator node = nodes[t % nodes.length];
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < idsPerThread; i++) {
+						issued.add(IdPrefix.STUDENT.format(node.next()));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(threads * idsPerThread, issued.size());
+	}
+
+	@Test
+	void formatsLikeExistingIds() {
+		assertEquals("USER-0000001", IdPrefix.USER.format(1));
+		assertEquals("CRS-00042", IdPrefix.COURSE.format(42));
+		assertEquals("DEP-123456", IdPrefix.DEPARTMENT.format(123456));
+		assertEquals(42, IdPrefix.parse("CRS-00042"));
+		assertEquals(0, IdPrefix.parse(null));
+	}
+
+}
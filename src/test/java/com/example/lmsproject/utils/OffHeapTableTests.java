@@ -0,0 +1,94 @@
+package com.example.lmsproject.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapTableTests {
+
+	// id (primary), username, name
+	private static final int[] WIDTHS = {8, 12, 16};
+
+	private static OffHeapTable table(int capacity) {
+		return new OffHeapTable(capacity, WIDTHS, 0, 1);
+	}
+
+	@Test
+	void findsRecordsByEitherKey() {
+		OffHeapTable table = table(10);
+		assertTrue(table.put("S1", "ann", "Ann Perera"));
+		assertTrue(table.put("S2", "bob", null));
+
+		assertArrayEquals(new String[]{"S1", "ann", "Ann Perera"}, table.get(0, "S1"));
+		assertArrayEquals(new String[]{"S2", "bob", null}, table.get(1, "bob"));
+		assertNull(table.get(0, "S3"));
+		assertNull(table.get(1, "S1"));
+	}
+
+	@Test
+	void overwritesByPrimaryKeyAndMovesTheSecondaryKey() {
+		OffHeapTable table = table(10);
+		table.put("S1", "ann", "Ann");
+		table.put("S1", "annp", "Ann P");
+
+		assertEquals(1, table.size());
+		assertNull(table.get(1, "ann"));
+		assertArrayEquals(new String[]{"S1", "annp", "Ann P"}, table.get(1, "annp"));
+	}
+
+	@Test
+	void staleOwnerOfASecondaryKeyIsDropped() {
+		OffHeapTable table = table(10);
+		table.put("S1", "ann", "Ann");
+		table.put("S2", "ann", "Ann again");
+
+		assertNull(table.get(0, "S1"));
+		assertEquals("S2", table.get(1, "ann")[0]);
+	}
+
+	@Test
+	void rejectsValuesWiderThanTheirFieldAndDropsTheOldRecord() {
+		OffHeapTable table = table(10);
+		table.put("S1", "ann", "Ann");
+
+		assertFalse(table.put("S1", "ann", "A name much longer than sixteen bytes"));
+		assertNull(table.get(0, "S1"));
+		// multi-byte characters count by their encoded length
+		assertFalse(table.put("S2", "ännännännänn", "x"));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	void reusesFreedRecordsAndRejectsWhenFull() {
+		OffHeapTable table = table(2);
+		assertTrue(table.put("S1", "a", "A"));
+		assertTrue(table.put("S2", "b", "B"));
+		assertFalse(table.put("S3", "c", "C"));
+
+		assertTrue(table.remove("S1"));
+		assertFalse(table.remove("S1"));
+		assertTrue(table.put("S3", "c", "C"));
+		assertNull(table.get(1, "a"));
+		assertEquals("C", table.get(0, "S3")[2]);
+	}
+
+	@Test
+	void churnBeyondTheIndexSizeKeepsLookupsWorking() {
+		OffHeapTable table = table(4);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(table.put("S" + i, "u" + i, "n" + i));
+			if (i >= 3) table.remove("S" + (i - 3));
+		}
+
+		assertEquals(3, table.size());
+		for (int i = 997; i < 1000; i++) {
+			assertEquals("n" + i, table.get(1, "u" + i)[2]);
+		}
+		assertNull(table.get(0, "S996"));
+	}
+
+}
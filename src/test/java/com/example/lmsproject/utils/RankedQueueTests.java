@@ -0,0 +1,66 @@
+package com.example.lmsproject.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedQueueTests {
+
+	@Test
+	void ranksFollowTheComparator() {
+		RankedQueue<Integer> queue = new RankedQueue<>(Comparator.reverseOrder());
+		queue.add(5);
+		queue.add(9);
+		queue.add(1);
+
+		assertEquals(9, queue.first());
+		assertEquals(0, queue.rank(9));
+		assertEquals(1, queue.rank(5));
+		assertEquals(2, queue.rank(1));
+		assertEquals(-1, queue.rank(7));
+	}
+
+	@Test
+	void addAndRemoveReportWhetherAnythingChanged() {
+		RankedQueue<String> queue = new RankedQueue<>(Comparator.naturalOrder());
+		assertTrue(queue.add("a"));
+		assertFalse(queue.add("a"));
+		assertEquals(1, queue.size());
+
+		assertTrue(queue.remove("a"));
+		assertFalse(queue.remove("a"));
+		assertTrue(queue.isEmpty());
+		assertNull(queue.first());
+	}
+
+	@Test
+	void matchesASortedListUnderRandomChurn() {
+		RankedQueue<Integer> queue = new RankedQueue<>(Comparator.naturalOrder());
+		List<Integer> sorted = new ArrayList<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 5000; i++) {
+			int value = random.nextInt(1000);
+			if (random.nextBoolean()) {
+				assertEquals(!sorted.contains(value), queue.add(value));
+				if (!sorted.contains(value)) sorted.add(value);
+			} else {
+				assertEquals(sorted.remove((Integer) value), queue.remove(value));
+			}
+			sorted.sort(null);
+
+			assertEquals(sorted.size(), queue.size());
+			assertEquals(sorted.isEmpty() ? null : sorted.get(0), queue.first());
+			assertEquals(sorted.indexOf(value), queue.rank(value));
+		}
+	}
+
+}